@@ -3,6 +3,8 @@ import axios from "axios";
 import "./LearnerDashboard.css";
 import { Navigate, useNavigate } from "react-router-dom";
 import { jwtDecode } from "jwt-decode";
+import { applyAssignmentChange, subscribeToAssignmentChanges } from "./assignmentStream";
+import { logout } from "./auth";
 
 const LearnerDashboard = () => {
     const [assignments, setAssignments] = useState([]);
@@ -28,19 +30,26 @@ const LearnerDashboard = () => {
             console.error("Invalid token:", error);
         }
 
-        axios.get("http://localhost:8080/api/assignments", {
+        const loadAssignments = () => axios.get("http://localhost:8080/api/assignments", {
             headers: {
-                Authorization: `Bearer ${token}`,
+                Authorization: `Bearer ${localStorage.getItem("authToken")}`,
             },
         })
             .then((response) => {
                 setAssignments(response.data);
-            })
+            });
+
+        loadAssignments()
             .catch((err) => {
                 console.error("Failed to fetch assignments:", err);
                 setError("Failed to load assignments.");
             })
             .finally(() => setLoading(false));
+
+        // after a reconnect the list is reloaded, since changes made while the stream was down were never sent
+        return subscribeToAssignmentChanges(
+            (change) => setAssignments((current) => applyAssignmentChange(current, change)),
+            () => loadAssignments().catch((err) => console.error("Failed to reload assignments:", err)));
     }, []);
 
     if (loading) return <div>Loading Dashboard...</div>;
@@ -52,16 +61,16 @@ const LearnerDashboard = () => {
     // COMPLETED will be under COMPLETED
     // PENDING SUBMISSION will be ignored
     const getStatusGroup = (status) => {
-        if (["Submitted", "Resubmitted", "In Review"].includes(status)) {
+        if (["SUBMITTED", "RESUBMITTED", "IN_REVIEW"].includes(status)) {
             return "SUBMITTED";
         }
-        if (status === "Needs Update") {
+        if (status === "NEEDS_UPDATE") {
             return "NEEDS UPDATE";
         }
-        if (status === "Completed") {
+        if (status === "COMPLETED") {
             return "COMPLETED";
         }
-        if (status === "Pending Submission") {
+        if (status === "PENDING_SUBMISSION") {
             return ""; //todo: get rid of pending submission
         }
         return "OTHER";
@@ -80,8 +89,8 @@ const LearnerDashboard = () => {
 
     const groupedAssignments = groupAssignmentsByStatusGroup(assignments);
 
-    const handleLogout = () => {
-        localStorage.removeItem("authToken");
+    const handleLogout = async () => {
+        await logout();
         navigate("/");
     };
 
@@ -26,6 +26,8 @@ const Login = () => {
             const response = await axios.post("http://localhost:8080/api/auth/login", {
                 username,
                 password,
+            }, {
+                withCredentials: true, // receives the refresh token cookie
             });
             console.log("Login successful");
             const token = response.data;
@@ -2,6 +2,8 @@ import React, { useEffect, useState } from "react";
 import axios from "axios";
 import { Navigate, useNavigate } from "react-router-dom";
 import { jwtDecode } from "jwt-decode";
+import { applyAssignmentChange, subscribeToAssignmentChanges } from "./assignmentStream";
+import { logout } from "./auth";
 import "./ReviewerDashboard.css"
 
 const ReviewerDashboard = () => {
@@ -28,33 +30,40 @@ const ReviewerDashboard = () => {
             console.error("Invalid token:", error);
         }
 
-        axios.get("http://localhost:8080/api/assignments", {
+        const loadAssignments = () => axios.get("http://localhost:8080/api/assignments", {
             headers: {
-                Authorization: `Bearer ${token}`,
+                Authorization: `Bearer ${localStorage.getItem("authToken")}`,
             },
         })
             .then((response) => {
                 setAssignments(response.data);
-            })
+            });
+
+        loadAssignments()
             .catch((err) => {
                 console.error("Failed to fetch assignments:", err);
                 setError("Failed to load assignments.");
             })
             .finally(() => setLoading(false));
+
+        // after a reconnect the list is reloaded, since changes made while the stream was down were never sent
+        return subscribeToAssignmentChanges(
+            (change) => setAssignments((current) => applyAssignmentChange(current, change)),
+            () => loadAssignments().catch((err) => console.error("Failed to reload assignments:", err)));
     }, []);
 
     if (loading) return <div>Loading Dashboard...</div>;
     if (error) return <div>{error}</div>;
 
     const getStatusGroup = (status) => {
-        if (["Submitted", "Resubmitted"].includes(status)) {
+        if (["SUBMITTED", "RESUBMITTED"].includes(status)) {
             return "SUBMITTED";
         }
-        if (status === "In Review") {
+        if (status === "IN_REVIEW") {
             return "IN REVIEW"
         }
 
-        if (status === "Completed") {
+        if (status === "COMPLETED") {
             return "COMPLETED";
         }
 
@@ -74,8 +83,8 @@ const ReviewerDashboard = () => {
 
     const groupedAssignments = groupAssignmentsByStatusGroup(assignments);
 
-    const handleLogout = () => {
-        localStorage.removeItem("authToken");
+    const handleLogout = async () => {
+        await logout();
         navigate("/");
     };
 
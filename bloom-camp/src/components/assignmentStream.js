@@ -0,0 +1,107 @@
+import { renewAccessToken } from "./auth";
+
+// The server sends a heartbeat comment every 15 seconds (assignments.stream.heartbeat-ms); a stream that stays silent
+// for three of them is presumed dead.
+const HEARTBEAT_TIMEOUT_MS = 45000;
+const MIN_RETRY_MS = 1000;
+const MAX_RETRY_MS = 30000;
+
+// Opens the stream with the stored access token, renewing it once if it has expired.
+const openStream = async (signal, renew = false) => {
+    const token = renew ? await renewAccessToken() : localStorage.getItem("authToken");
+    const response = await fetch("http://localhost:8080/api/assignments/stream", {
+        headers: {
+            Authorization: `Bearer ${token}`,
+            Accept: "text/event-stream",
+        },
+        signal,
+    });
+    if (response.status === 401 && !renew) {
+        return openStream(signal, true);
+    }
+    if (!response.ok) {
+        throw new Error(`Assignment stream refused with status ${response.status}`);
+    }
+    return response;
+};
+
+// Reads events until the stream ends, aborting it when no data, not even a heartbeat, arrives in time.
+const readEvents = async (response, controller, onChange) => {
+    const reader = response.body.getReader();
+    const decoder = new TextDecoder();
+    let buffer = "";
+    let watchdog = setTimeout(() => controller.abort(), HEARTBEAT_TIMEOUT_MS);
+    try {
+        for (;;) {
+            const { value, done } = await reader.read();
+            if (done) return;
+            clearTimeout(watchdog);
+            watchdog = setTimeout(() => controller.abort(), HEARTBEAT_TIMEOUT_MS);
+            buffer += decoder.decode(value, { stream: true });
+            // events are separated by a blank line; heartbeats are comments and carry no data
+            const events = buffer.split("\n\n");
+            buffer = events.pop();
+            events.forEach((event) => {
+                const data = event.split("\n")
+                    .filter((line) => line.startsWith("data:"))
+                    .map((line) => line.slice(5))
+                    .join("\n");
+                if (data) onChange(JSON.parse(data));
+            });
+        }
+    } finally {
+        clearTimeout(watchdog);
+    }
+};
+
+// Follows the server-sent stream of assignment changes for the logged in user.
+// EventSource cannot send the Authorization header, so the stream is read with fetch instead.
+// The stream ends when the server times it out, drops a slow subscriber or restarts, or when the connection dies;
+// it is then reopened with exponential backoff, and onReconnect is called once it is back, since changes made in
+// between were never sent. It stops for good when the session can no longer be renewed.
+export const subscribeToAssignmentChanges = (onChange, onReconnect) => {
+    let stopped = false;
+    let controller = null;
+    let retryTimer = null;
+
+    const run = async () => {
+        let delay = MIN_RETRY_MS;
+        for (let attempt = 0; !stopped; attempt++) {
+            controller = new AbortController();
+            try {
+                const response = await openStream(controller.signal);
+                if (attempt > 0) onReconnect();
+                delay = MIN_RETRY_MS;
+                await readEvents(response, controller, onChange);
+            } catch (err) {
+                if (stopped) return;
+                if (err.response && err.response.status === 401) {
+                    console.error("Assignment stream stopped, the session has ended:", err);
+                    return;
+                }
+                console.error("Assignment stream closed:", err);
+            }
+            if (stopped) return;
+            await new Promise((resolve) => {
+                retryTimer = setTimeout(resolve, delay * (0.5 + Math.random() / 2));
+            });
+            delay = Math.min(delay * 2, MAX_RETRY_MS);
+        }
+    };
+    run();
+
+    return () => {
+        stopped = true;
+        clearTimeout(retryTimer);
+        controller.abort();
+    };
+};
+
+// Applies a change from the stream to a list of assignment summaries.
+export const applyAssignmentChange = (assignments, change) => {
+    const others = assignments.filter((assignment) => assignment.id !== change.id);
+    if (change.type === "REMOVE") {
+        return others;
+    }
+    return [...others, change.assignment].sort((a, b) => a.id - b.id);
+};
@@ -0,0 +1,51 @@
+import axios from "axios";
+
+// Access tokens only last a few minutes. The refresh token lives in an HttpOnly cookie set by the login endpoint,
+// so renewing the access token needs neither the password nor any script access to the refresh token.
+export const refreshAccessToken = async () => {
+    const response = await axios.post("http://localhost:8080/api/auth/refresh", null, {
+        withCredentials: true,
+    });
+    const token = response.data;
+    localStorage.setItem("authToken", token);
+    return token;
+};
+
+// Revokes the access token and the refresh token on the server, then forgets them here.
+export const logout = async () => {
+    const token = localStorage.getItem("authToken");
+    localStorage.removeItem("authToken");
+    try {
+        await axios.post("http://localhost:8080/api/auth/logout", null, {
+            headers: token ? { Authorization: `Bearer ${token}` } : {},
+            withCredentials: true,
+        });
+    } catch (err) {
+        console.error("Logout failed:", err);
+    }
+};
+
+// Every refresh token can only be used once, so concurrent callers share a single refresh.
+let pendingRefresh = null;
+
+export const renewAccessToken = () => {
+    pendingRefresh = pendingRefresh || refreshAccessToken().finally(() => {
+        pendingRefresh = null;
+    });
+    return pendingRefresh;
+};
+
+// Renews the access token once when a request is rejected with 401, then replays the request with the new token.
+axios.interceptors.response.use(
+    (response) => response,
+    async (error) => {
+        const { config, response } = error;
+        if (!response || response.status !== 401 || config._retried || config.url.includes("/api/auth/")) {
+            throw error;
+        }
+        config._retried = true;
+        const token = await renewAccessToken();
+        config.headers.Authorization = `Bearer ${token}`;
+        return axios(config);
+    }
+);
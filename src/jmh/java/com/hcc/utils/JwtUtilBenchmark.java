@@ -0,0 +1,90 @@
+package com.hcc.utils;
+
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.ReflectionUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.lang.reflect.Field;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing and signing with the raw string secret (decoded and turned into a key on every call) against the
+ * pre-built key and shared parser used by JwtUtil. Run with ./gradlew jmh; the gc profiler reports allocation per op.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+    private static final String SECRET = "YmVuY2htYXJrU2VjcmV0Rm9ySnd0VXRpbEJlbmNobWFya3NPbmx5";
+
+    private String token;
+    private JwtParser sharedParser;
+    private SecretKeySpec signingKey;
+    private User user;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = new JwtUtil();
+        setField(jwtUtil, "secret", SECRET);
+        setField(jwtUtil, "verifiedCacheMaximumSize", 1L);
+        jwtUtil.init();
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark");
+        user.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+        token = jwtUtil.generateToken(user);
+
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(SECRET), SignatureAlgorithm.HS256.getJcaName());
+        sharedParser = Jwts.parser().setSigningKey(signingKey);
+    }
+
+    @Benchmark
+    public Claims parseWithStringSecret() {
+        return Jwts.parser()
+                .setSigningKey(SECRET)
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public Claims parseWithSharedParser() {
+        return sharedParser
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    @Benchmark
+    public String signWithStringSecret() {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .setExpiration(new Date(System.currentTimeMillis() + JwtUtil.DEFAULT_ACCESS_TOKEN_VALIDITY * 1000))
+                .signWith(SignatureAlgorithm.HS256, SECRET)
+                .compact();
+    }
+
+    @Benchmark
+    public String signWithPrebuiltKey() {
+        return Jwts.builder()
+                .setSubject(user.getUsername())
+                .setExpiration(new Date(System.currentTimeMillis() + JwtUtil.DEFAULT_ACCESS_TOKEN_VALIDITY * 1000))
+                .signWith(SignatureAlgorithm.HS256, signingKey)
+                .compact();
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
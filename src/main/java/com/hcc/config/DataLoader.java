@@ -51,17 +51,17 @@ public class DataLoader {
 //                        return userRepository.save(newReviewer);
 //                    });
 //
-//            Assignment assignment1 = new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 1, "github1", "branch1",
+//            Assignment assignment1 = new Assignment(AssignmentStatusEnum.RESUBMITTED, 1, "github1", "branch1",
 //                    null, learner, reviewer);
-//            Assignment assignment2 = new Assignment(AssignmentStatusEnum.SUBMITTED.getStatus(), 2, "github2", "branch2",
+//            Assignment assignment2 = new Assignment(AssignmentStatusEnum.SUBMITTED, 2, "github2", "branch2",
 //                    null, learner, null);
-//            Assignment assignment3 = new Assignment(AssignmentStatusEnum.COMPLETED.getStatus(), 3, "github3", "branch3",
+//            Assignment assignment3 = new Assignment(AssignmentStatusEnum.COMPLETED, 3, "github3", "branch3",
 //                    "review3", learner, reviewer);
-//            Assignment assignment4 = new Assignment(AssignmentStatusEnum.NEEDS_UPDATE.getStatus(), 4, "github4", "branch4",
+//            Assignment assignment4 = new Assignment(AssignmentStatusEnum.NEEDS_UPDATE, 4, "github4", "branch4",
 //                    null, learner, reviewer);
-//            Assignment assignment5 = new Assignment(AssignmentStatusEnum.SUBMITTED.getStatus(), 5, "github5", "branch5",
+//            Assignment assignment5 = new Assignment(AssignmentStatusEnum.SUBMITTED, 5, "github5", "branch5",
 //                    null, learner, null);
-//            Assignment assignment6 = new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION.getStatus(), 6, "github6",
+//            Assignment assignment6 = new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 6, "github6",
 //                    "branch6", null, learner, null);
 //
 //            assignmentRepository.saveAll(List.of(
@@ -0,0 +1,49 @@
+package com.hcc.config;
+
+import com.hcc.repositories.AssignmentRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Publishes the hit ratio of every second-level cache region as the hibernate.cache.hit.ratio gauge, tagged with the
+ * region, e.g. /actuator/metrics/hibernate.cache.hit.ratio?tag=region:com.hcc.entities.Assignment.
+ * The underlying hit and miss counts are published by Spring Boot as hibernate.second.level.cache.requests.
+ */
+@Configuration
+public class HibernateCacheMetricsConfig {
+
+    @Bean
+    public MeterBinder hibernateCacheHitRatio(EntityManagerFactory entityManagerFactory) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        return registry -> {
+            //query result regions are only created on first use, so they are not listed yet
+            Set<String> regions = new LinkedHashSet<>(List.of(statistics.getSecondLevelCacheRegionNames()));
+            regions.add(AssignmentRepository.QUERY_CACHE_REGION);
+            for (String region : regions) {
+                Gauge.builder("hibernate.cache.hit.ratio", statistics, stats -> hitRatio(stats, region))
+                        .tag("region", region)
+                        .description("Share of second-level cache lookups in the region that were hits")
+                        .register(registry);
+            }
+        };
+    }
+
+    private static double hitRatio(Statistics statistics, String region) {
+        CacheRegionStatistics regionStatistics = statistics.getCacheRegionStatistics(region);
+        if (regionStatistics == null) {
+            return Double.NaN;
+        }
+        long lookups = regionStatistics.getHitCount() + regionStatistics.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) regionStatistics.getHitCount() / lookups;
+    }
+}
@@ -1,5 +1,6 @@
 package com.hcc.config;
 
+import com.hcc.enums.AuthorityEnum;
 import com.hcc.filters.JwtFilter;
 import com.hcc.services.UserDetailServiceImpl;
 import com.hcc.utils.CustomPasswordEncoder;
@@ -35,7 +36,10 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
 
-        auth.userDetailsService(userDetailServiceImpl).passwordEncoder(customPasswordEncoder.getPasswordEncoder());
+        //hashes of an outdated strength are rehashed and stored on successful login
+        auth.userDetailsService(userDetailServiceImpl)
+                .passwordEncoder(customPasswordEncoder.getPasswordEncoder())
+                .userDetailsPasswordManager(userDetailServiceImpl);
     }
 
     @Override
@@ -50,6 +54,7 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
 
         http.authorizeRequests()
                 .antMatchers("/api/auth/**").permitAll()
+                .antMatchers("/api/admin/**").hasAuthority(AuthorityEnum.ROLE_ADMIN.name())
                 .anyRequest().authenticated();
         http.addFilterBefore(jwtFilt, UsernamePasswordAuthenticationFilter.class);
     }
@@ -0,0 +1,52 @@
+package com.hcc.controllers;
+
+import com.hcc.exceptions.BadRequestException;
+import com.hcc.services.TokenRevocationService;
+import com.hcc.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Administration endpoints, restricted to ROLE_ADMIN by SecurityConfig.
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Value("${jwt.access-token.validity-seconds:900}")
+    private long accessTokenValiditySeconds = JwtUtil.DEFAULT_ACCESS_TOKEN_VALIDITY;
+
+    /**
+     * Revokes an access token by its id (jti claim), e.g. one found in the logs. The expiration of the token is not
+     * known here, so it is revoked for the longest an access token can live.
+     * @param jti the id of the token, a UUID as issued by JwtUtil
+     * @return a 204 No Content status, or 400 Bad Request if the id is not a UUID
+     */
+    @PostMapping("tokens/{jti}/revoke")
+    public ResponseEntity<?> revokeToken(@PathVariable("jti") String jti) {
+        if (!isUuid(jti)) {
+            throw new BadRequestException("Invalid token id: " + jti);
+        }
+        tokenRevocationService.revoke(jti, Instant.now().plusSeconds(accessTokenValiditySeconds));
+        return ResponseEntity.noContent().build();
+    }
+
+    //UUID.fromString also accepts shortened forms, so the id must read back unchanged
+    private static boolean isUuid(String jti) {
+        try {
+            return UUID.fromString(jti).toString().equals(jti);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
@@ -1,30 +1,55 @@
 package com.hcc.controllers;
 import com.hcc.dtos.AssignmentCreateDto;
 import com.hcc.dtos.AssignmentDto;
+import com.hcc.dtos.AssignmentPageDto;
+import com.hcc.dtos.AssignmentSummaryDto;
+import com.hcc.dtos.TimeInStatusDto;
 import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.enums.ExportFormatEnum;
+import com.hcc.exceptions.BadRequestException;
+import com.hcc.exceptions.PreconditionFailedException;
 import com.hcc.exceptions.ResourceNotFoundException;
 import com.hcc.exceptions.UnauthorizedAccessException;
 import com.hcc.repositories.UserRepository;
+import com.hcc.services.AssignmentAnalyticsService;
+import com.hcc.services.AssignmentExportService;
 import com.hcc.services.AssignmentService;
+import com.hcc.services.AssignmentStreamService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
 @RestController
 @RequestMapping("/api/assignments")
 public class AssignmentController {
+    private static final int DEFAULT_PAGE_LIMIT = 50;
+
     @Autowired
     AssignmentService assignmentService;
     @Autowired
+    AssignmentStreamService assignmentStreamService;
+    @Autowired
+    AssignmentAnalyticsService assignmentAnalyticsService;
+    @Autowired
+    AssignmentExportService assignmentExportService;
+    @Autowired
     UserRepository userRepository;
 
     /**
@@ -32,21 +57,31 @@ public class AssignmentController {
      * If a Learner is retrieving, then all Assignments under their name will be returned.
      * If a Reviewer is retrieving, then all Assignments that has been claimed and all Assignments that have been
      * submitted but unclaimed will be returned
+     * Assignments are returned as summaries; the full Assignment is available from getAssignmentById.
+     * When a limit or a cursor is given, one page is returned instead, along with the cursor of the next page.
      * @param userDetails The user logged in
+     * @param limit the maximum number of Assignments per page
+     * @param after the cursor of the previous page
      * @return 204 No Content if List is empty, otherwise a 200 OK status
      */
     @GetMapping
-    public ResponseEntity<?> getAssignmentsByUser(@AuthenticationPrincipal UserDetails userDetails) {
-        List<AssignmentDto> dtoList = new ArrayList<>();
-
+    public ResponseEntity<?> getAssignmentsByUser(@AuthenticationPrincipal UserDetails userDetails,
+                                                  @RequestParam(value = "limit", required = false) Integer limit,
+                                                  @RequestParam(value = "after", required = false) String after) {
         User user = checkUser(userDetails);
+        if (limit != null || after != null) {
+            return getAssignmentPageByUser(user, limit == null ? DEFAULT_PAGE_LIMIT : limit, after);
+        }
+
+        List<AssignmentSummaryDto> dtoList = new ArrayList<>();
+
         //If User is LEARNER
-        if (user.getAuthorities().stream().anyMatch(auth -> auth.getAuthority().equals("ROLE_LEARNER"))) {
+        if (hasAuthority(user, AuthorityEnum.ROLE_LEARNER)) {
             dtoList = assignmentService.getAssignmentsByLearner(user);
         }
 
         //If User is REVIEWER
-        if (user.getAuthorities().stream().anyMatch(auth -> auth.getAuthority().equals("ROLE_REVIEWER"))) {
+        if (hasAuthority(user, AuthorityEnum.ROLE_REVIEWER)) {
             dtoList = assignmentService.getAssignmentsByReviewer(user);
         }
 
@@ -56,31 +91,168 @@ public class AssignmentController {
         return ResponseEntity.ok(dtoList);
     }
 
+    /**
+     * This will count the Assignments of getAssignmentsByUser in each status, following the same authority rules,
+     * so the dashboards can render their badges without downloading the lists.
+     * @param userDetails The user logged in
+     * @return 200 OK status with the number of Assignments per status, statuses with none included
+     */
+    @GetMapping("counts")
+    public ResponseEntity<?> getAssignmentCountsByUser(@AuthenticationPrincipal UserDetails userDetails) {
+        User user = checkUser(userDetails);
+        Map<String, Long> counts = Map.of();
+
+        if (hasAuthority(user, AuthorityEnum.ROLE_LEARNER)) {
+            counts = assignmentService.getAssignmentCountsByLearner(user);
+        }
+
+        if (hasAuthority(user, AuthorityEnum.ROLE_REVIEWER)) {
+            counts = assignmentService.getAssignmentCountsByReviewer(user);
+        }
+
+        return ResponseEntity.ok(counts);
+    }
+
+    /**
+     * This will be used by Reviewers ONLY to find Assignments by a fragment of their GitHub URL or branch, best
+     * match first.
+     * @param q the fragment to look for, at least 3 characters
+     * @param limit the maximum number of Assignments per page
+     * @param after the cursor of the previous page
+     * @param userDetails The user logged in
+     * @return 200 OK status with the page of matching Assignments, which may be empty
+     */
+    @GetMapping("search")
+    public ResponseEntity<?> searchAssignments(@RequestParam("q") String q,
+                                               @RequestParam(value = "limit", required = false) Integer limit,
+                                               @RequestParam(value = "after", required = false) String after,
+                                               @AuthenticationPrincipal UserDetails userDetails) {
+        User user = checkUser(userDetails);
+        AssignmentPageDto page = assignmentService.searchAssignments(user, q, after,
+                limit == null ? DEFAULT_PAGE_LIMIT : limit);
+
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * This will be used by Reviewers ONLY to see how long Assignments stay in each status, as percentiles read from
+     * precomputed histograms. Status changes are included within a couple of minutes.
+     * @param cohort the learner cohort start date (yyyy-MM-dd), or all cohorts if omitted
+     * @param number the assignment number, or all assignments if omitted
+     * @param userDetails The user logged in
+     * @return 200 OK status with the time in each status
+     */
+    @GetMapping("analytics/time-in-status")
+    public ResponseEntity<?> getTimeInStatus(
+            @RequestParam(value = "cohort", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate cohort,
+            @RequestParam(value = "number", required = false) Integer number,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = checkUser(userDetails);
+        List<TimeInStatusDto> timeInStatus = assignmentAnalyticsService.getTimeInStatus(user, cohort, number);
+
+        return ResponseEntity.ok(timeInStatus);
+    }
+
+    /**
+     * This will be used by Reviewers ONLY to export Assignments for reporting, as newline-delimited JSON or CSV.
+     * Rows are streamed as they are read, so exports of any size start right away and use constant memory.
+     * @param format ndjson (the default) or csv
+     * @param cohort the learner cohort start date (yyyy-MM-dd), or all cohorts if omitted
+     * @param userDetails The user logged in
+     * @return 200 OK status with the export as an attachment
+     */
+    @GetMapping("export")
+    public ResponseEntity<StreamingResponseBody> exportAssignments(
+            @RequestParam(value = "format", defaultValue = "ndjson") String format,
+            @RequestParam(value = "cohort", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+            LocalDate cohort,
+            @AuthenticationPrincipal UserDetails userDetails) {
+        User user = checkUser(userDetails);
+        ExportFormatEnum exportFormat;
+        try {
+            exportFormat = ExportFormatEnum.fromFormat(format);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        StreamingResponseBody body = assignmentExportService.exportAssignments(user, cohort, exportFormat);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=assignments." + exportFormat.name().toLowerCase())
+                .body(body);
+    }
+
+    /**
+     * Paginated variant of getAssignmentsByUser, following the same authority rules.
+     * @param user the User logged in
+     * @param limit the maximum number of Assignments in the page
+     * @param after the cursor of the previous page, or null for the first page
+     * @return 200 OK status with the page, which may be empty
+     */
+    private ResponseEntity<?> getAssignmentPageByUser(User user, int limit, String after) {
+        AssignmentPageDto page = new AssignmentPageDto(List.of(), null);
+
+        if (hasAuthority(user, AuthorityEnum.ROLE_LEARNER)) {
+            page = assignmentService.getAssignmentPageByLearner(user, after, limit);
+        }
+
+        if (hasAuthority(user, AuthorityEnum.ROLE_REVIEWER)) {
+            page = assignmentService.getAssignmentPageByReviewer(user, after, limit);
+        }
+
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * This will stream the changes to the User's dashboard as Server-Sent Events named "assignment", each carrying
+     * an AssignmentChangeDto. Changes are only sent after they are committed, following the same authority rules as
+     * getAssignmentsByUser. A client that falls too far behind is disconnected and should reload the list when it
+     * reconnects.
+     * @param userDetails The user logged in
+     * @return the event stream
+     */
+    @GetMapping(value = "stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAssignmentChanges(@AuthenticationPrincipal UserDetails userDetails) {
+        User user = checkUser(userDetails);
+        return assignmentStreamService.subscribe(user);
+    }
+
     /**
      * This will retrieve assignments by their ID.
      * @param id the ID of the Assignment
-     * @return 200 OK status when retrieved
+     * @return 200 OK status when retrieved, with the Assignment version as the ETag
      */
     @GetMapping("{id}")
     public ResponseEntity<?> getAssignmentById(@PathVariable("id") Long id) {
         AssignmentDto dto = assignmentService.getAssignmentById(id);
-        return ResponseEntity.ok(dto);
+        return withETag(ResponseEntity.ok(), dto);
     }
 
     /**
      * This will update Assignments according to the User's authority.
+     * The version the update is based on is taken from the If-Match header, or else from the version in the body.
+     * When there is neither, or the header is "*", the update is unconditional. Weak ETags are rejected.
      * @param updateDto The assignmentDTO with updated fields
+     * @param ifMatch the ETag of the Assignment the update is based on
      * @param id the ID of the Assignment to be updated
      * @param userDetails the User logged on
-     * @return 200 OK status
+     * @return 200 OK status with the new ETag, 404 Not Found if the Assignment does not exist, 409 Conflict if the
+     * Assignment has been updated since, or 412 Precondition Failed if the If-Match tag is weak
      */
     @PutMapping("{id}")
     public ResponseEntity<?> updateAssignmentById(@RequestBody AssignmentDto updateDto,
+                                                  @RequestHeader(value = HttpHeaders.IF_MATCH, required = false)
+                                                  String ifMatch,
                                                   @PathVariable("id") Long id,
                                                   @AuthenticationPrincipal UserDetails userDetails) {
         User user = checkUser(userDetails);
+        if (ifMatch != null) {
+            updateDto.setVersion(fromETag(ifMatch));
+        }
         AssignmentDto dto = assignmentService.updateAssignmentById(updateDto, id, user);
-        return ResponseEntity.status(HttpStatus.OK).body(dto);
+        return withETag(ResponseEntity.status(HttpStatus.OK), dto);
     }
 
     /**
@@ -95,11 +267,47 @@ public class AssignmentController {
         User user = checkUser(userDetails);
         AssignmentDto dto = assignmentService.createAssignment(createDto, user);
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(dto);
+        return withETag(ResponseEntity.status(HttpStatus.CREATED), dto);
+    }
+
+    /**
+     * This will be used by Learners ONLY to create many assignments at once. The Assignments are inserted in JDBC
+     * batches rather than one statement per row.
+     * @param createDtos The DTOs with specific fields for the Learner to input
+     * @param userDetails The logged on User
+     * @return 201 Created status with the created Assignments, in the order they were given
+     */
+    @PostMapping("bulk")
+    public ResponseEntity<?> createAssignments(@RequestBody List<AssignmentCreateDto> createDtos,
+                                               @AuthenticationPrincipal UserDetails userDetails) {
+        User user = checkUser(userDetails);
+        List<AssignmentDto> dtos = assignmentService.createAssignments(createDtos, user);
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(dtos);
+    }
+
+    /**
+     * This will be used by Reviewers ONLY to claim the oldest submitted Assignments, moving them to In Review.
+     * Concurrent Reviewers always get different Assignments.
+     * @param count the maximum number of Assignments to claim
+     * @param userDetails The logged on User
+     * @return 200 OK status with the claimed Assignments, or 204 No Content if there was nothing to claim
+     */
+    @PostMapping("claim-next")
+    public ResponseEntity<?> claimNextAssignments(@RequestParam(value = "count", defaultValue = "1") int count,
+                                                  @AuthenticationPrincipal UserDetails userDetails) {
+        User user = checkUser(userDetails);
+        List<AssignmentSummaryDto> claimed = assignmentService.claimNextAssignments(user, count);
+
+        if (claimed.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(claimed);
     }
 
     /**
-     * This is a helper method to authenticate UserDetails
+     * This is a helper method to authenticate UserDetails. JwtFilter already resolves the User once per request, so
+     * it is returned as is; the database is only consulted for principals that were not resolved by the filter.
      * @param userDetails the user to be authenticated
      * @return the User
      */
@@ -107,6 +315,9 @@ public class AssignmentController {
         if (userDetails == null) {
             throw new UnauthorizedAccessException("Authentication required. User is not authenticated");
         }
+        if (userDetails instanceof User) {
+            return (User) userDetails;
+        }
         Optional<User> userOptional = userRepository.findByUsername(userDetails.getUsername());
         if (userOptional.isEmpty()) {
             throw new ResourceNotFoundException("User not found");
@@ -114,4 +325,39 @@ public class AssignmentController {
 
         return userOptional.get();
     }
+
+    /**
+     * Sends the Assignment version as the ETag of the response.
+     */
+    private static ResponseEntity<AssignmentDto> withETag(ResponseEntity.BodyBuilder response, AssignmentDto dto) {
+        if (dto != null && dto.getVersion() != null) {
+            response.eTag(dto.getVersion().toString());
+        }
+        return response.body(dto);
+    }
+
+    /**
+     * Reads the Assignment version from an If-Match header. "*" matches any version, so it only requires the
+     * Assignment to exist: the update is made unconditional, and updateAssignmentById still answers 404 when there
+     * is no Assignment to update. Weak tags never match, as If-Match uses strong comparison (RFC 9110 13.1.1).
+     * @throws PreconditionFailedException if the tag is weak
+     */
+    private static Long fromETag(String ifMatch) {
+        String tag = ifMatch.trim();
+        if (tag.equals("*")) {
+            return null;
+        }
+        if (tag.startsWith("W/")) {
+            throw new PreconditionFailedException("Weak ETags cannot be used in If-Match: " + ifMatch);
+        }
+        try {
+            return Long.valueOf(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid If-Match header: " + ifMatch);
+        }
+    }
+
+    private boolean hasAuthority(User user, AuthorityEnum authority) {
+        return user.getAuthorities().stream().anyMatch(auth -> auth.getAuthority().equals(authority.name()));
+    }
 }
@@ -3,11 +3,17 @@ package com.hcc.controllers;
 import com.hcc.dtos.AuthCredentialRequest;
 import com.hcc.dtos.AuthCredentialResponse;
 import com.hcc.services.LoginService;
+import com.hcc.services.LoginThrottleService;
+import com.hcc.services.RefreshTokenService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import javax.servlet.http.HttpServletRequest;
 import java.util.List;
 
 @RestController
@@ -15,15 +21,62 @@ import java.util.List;
 public class LoginController {
     @Autowired
     LoginService loginService;
+    @Autowired
+    LoginThrottleService loginThrottleService;
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
+    static final String REFRESH_TOKEN_COOKIE = "refresh_token";
+
+    @Value("${auth.refresh-token.cookie-secure:true}")
+    private boolean refreshCookieSecure = true;
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody AuthCredentialRequest request) {
+    public ResponseEntity<?> login(@RequestBody AuthCredentialRequest request, HttpServletRequest httpRequest) {
+        //429 before any lookup or hashing when the client or the username has run out of attempts
+        loginThrottleService.checkLogin(request.getUsername(), httpRequest.getRemoteAddr());
         AuthCredentialResponse response = loginService.login(request);
         if (response.getToken().isEmpty()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid login");
         } else {
-            return ResponseEntity.status(HttpStatus.OK).body(response.getToken());
+            return withRefreshCookie(ResponseEntity.status(HttpStatus.OK), response).body(response.getToken());
+        }
+    }
+
+    /**
+     * Renews the access token with the refresh token cookie set at login, without the password. The refresh token is
+     * rotated: the cookie is replaced by a new one, and the old token cannot be used again.
+     * @param refreshToken the refresh token cookie
+     * @return a 200 OK status with the new access token, or a 401 Unauthorized status
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@CookieValue(value = REFRESH_TOKEN_COOKIE, required = false) String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing refresh token");
         }
+        AuthCredentialResponse response = refreshTokenService.rotate(refreshToken);
+        return withRefreshCookie(ResponseEntity.ok(), response).body(response.getToken());
+    }
+
+    /**
+     * Logs out: the access token is revoked until it expires, the refresh token family is ended and its cookie is
+     * cleared. Always succeeds, so it can be called with tokens that are already invalid.
+     * @param token the access token
+     * @param refreshToken the refresh token cookie
+     * @return a 204 No Content status
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String token,
+                                    @CookieValue(value = REFRESH_TOKEN_COOKIE, required = false) String refreshToken) {
+        loginService.logout(token, refreshToken);
+        ResponseCookie cleared = ResponseCookie.from(REFRESH_TOKEN_COOKIE, "")
+                .httpOnly(true)
+                .secure(refreshCookieSecure)
+                .sameSite("Strict")
+                .path("/api/auth")
+                .maxAge(0)
+                .build();
+        return ResponseEntity.noContent().header(HttpHeaders.SET_COOKIE, cleared.toString()).build();
     }
 
     @GetMapping("/validate")
@@ -36,4 +89,20 @@ public class LoginController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Authentication failed");
         }
     }
+
+    //the refresh token is only readable by the server, and only sent to the auth endpoints
+    private ResponseEntity.BodyBuilder withRefreshCookie(ResponseEntity.BodyBuilder builder,
+                                                         AuthCredentialResponse response) {
+        if (response.getRefreshToken() == null) {
+            return builder;
+        }
+        ResponseCookie cookie = ResponseCookie.from(REFRESH_TOKEN_COOKIE, response.getRefreshToken())
+                .httpOnly(true)
+                .secure(refreshCookieSecure)
+                .sameSite("Strict")
+                .path("/api/auth")
+                .maxAge(refreshTokenService.getValidity())
+                .build();
+        return builder.header(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
 }
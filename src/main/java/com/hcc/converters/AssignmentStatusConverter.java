@@ -0,0 +1,23 @@
+package com.hcc.converters;
+
+import com.hcc.enums.AssignmentStatusEnum;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+/**
+ * Persists an AssignmentStatusEnum as its step, so the status column is a small integer instead of the display text.
+ * Steps are part of the stored data: never renumber an existing status.
+ */
+@Converter
+public class AssignmentStatusConverter implements AttributeConverter<AssignmentStatusEnum, Integer> {
+    @Override
+    public Integer convertToDatabaseColumn(AssignmentStatusEnum status) {
+        return status == null ? null : status.getStep();
+    }
+
+    @Override
+    public AssignmentStatusEnum convertToEntityAttribute(Integer step) {
+        return step == null ? null : AssignmentStatusEnum.fromStep(step);
+    }
+}
@@ -0,0 +1,79 @@
+package com.hcc.dtos;
+
+import java.util.Objects;
+
+/**
+ * One change pushed on the assignment stream. An UPSERT carries the summary of an Assignment that is (still) on the
+ * receiver's dashboard; a REMOVE only carries the ID of an Assignment that is not, or no longer, on it.
+ */
+public class AssignmentChangeDto {
+    public static final String UPSERT = "UPSERT";
+    public static final String REMOVE = "REMOVE";
+
+    private String type;
+    private Long id;
+    private AssignmentSummaryDto assignment;
+
+    public AssignmentChangeDto() {
+    }
+
+    public AssignmentChangeDto(String type, Long id, AssignmentSummaryDto assignment) {
+        this.type = type;
+        this.id = id;
+        this.assignment = assignment;
+    }
+
+    public static AssignmentChangeDto upsert(AssignmentSummaryDto assignment) {
+        return new AssignmentChangeDto(UPSERT, assignment.getId(), assignment);
+    }
+
+    public static AssignmentChangeDto remove(Long id) {
+        return new AssignmentChangeDto(REMOVE, id, null);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public AssignmentSummaryDto getAssignment() {
+        return assignment;
+    }
+
+    public void setAssignment(AssignmentSummaryDto assignment) {
+        this.assignment = assignment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AssignmentChangeDto that = (AssignmentChangeDto) o;
+        return Objects.equals(getType(), that.getType()) && Objects.equals(getId(), that.getId()) && Objects.equals(getAssignment(), that.getAssignment());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getType(), getId(), getAssignment());
+    }
+
+    @Override
+    public String toString() {
+        return "AssignmentChangeDto{" +
+                "type='" + type + '\'' +
+                ", id=" + id +
+                ", assignment=" + assignment +
+                '}';
+    }
+}
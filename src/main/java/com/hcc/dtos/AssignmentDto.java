@@ -23,6 +23,9 @@ public class AssignmentDto {
     private String reviewVideoUrl; //reviewer
     private User codeReviewer; //reviewer
 
+    //version read by the client, checked on update to detect concurrent changes
+    private Long version;
+
     public AssignmentDto() {
     }
 
@@ -90,6 +93,14 @@ public class AssignmentDto {
         this.user = user;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     public String getName() {
         return name;
     }
@@ -103,12 +114,12 @@ public class AssignmentDto {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AssignmentDto that = (AssignmentDto) o;
-        return Objects.equals(getNumber(), that.getNumber()) && Objects.equals(getId(), that.getId()) && Objects.equals(getUser(), that.getUser()) && Objects.equals(getName(), that.getName()) && Objects.equals(getStatus(), that.getStatus()) && Objects.equals(getGithubUrl(), that.getGithubUrl()) && Objects.equals(getBranch(), that.getBranch()) && Objects.equals(getReviewVideoUrl(), that.getReviewVideoUrl()) && Objects.equals(getCodeReviewer(), that.getCodeReviewer());
+        return Objects.equals(getNumber(), that.getNumber()) && Objects.equals(getId(), that.getId()) && Objects.equals(getUser(), that.getUser()) && Objects.equals(getName(), that.getName()) && Objects.equals(getStatus(), that.getStatus()) && Objects.equals(getGithubUrl(), that.getGithubUrl()) && Objects.equals(getBranch(), that.getBranch()) && Objects.equals(getReviewVideoUrl(), that.getReviewVideoUrl()) && Objects.equals(getCodeReviewer(), that.getCodeReviewer()) && Objects.equals(getVersion(), that.getVersion());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getNumber(), getId(), getUser(), getName(), getStatus(), getGithubUrl(), getBranch(), getReviewVideoUrl(), getCodeReviewer());
+        return Objects.hash(getNumber(), getId(), getUser(), getName(), getStatus(), getGithubUrl(), getBranch(), getReviewVideoUrl(), getCodeReviewer(), getVersion());
     }
 
     @Override
@@ -123,6 +134,7 @@ public class AssignmentDto {
                 ", branch='" + branch + '\'' +
                 ", reviewVideoUrl='" + reviewVideoUrl + '\'' +
                 ", codeReviewer=" + codeReviewer +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,163 @@
+package com.hcc.dtos;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * One exported Assignment, as written by GET /api/assignments/export. The status is the AssignmentStatusEnum
+ * constant name; the learner and reviewer are reduced to their ID and username, plus the learner's cohort.
+ */
+public class AssignmentExportDto {
+    private Long id;
+    private Integer number;
+    private String name;
+    private String status;
+    private String githubUrl;
+    private String branch;
+    private String reviewVideoUrl;
+    private Long learnerId;
+    private String learnerName;
+    private LocalDate cohortStartDate;
+    private Long reviewerId;
+    private String reviewerName;
+
+    public AssignmentExportDto() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public void setNumber(Integer number) {
+        this.number = number;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getGithubUrl() {
+        return githubUrl;
+    }
+
+    public void setGithubUrl(String githubUrl) {
+        this.githubUrl = githubUrl;
+    }
+
+    public String getBranch() {
+        return branch;
+    }
+
+    public void setBranch(String branch) {
+        this.branch = branch;
+    }
+
+    public String getReviewVideoUrl() {
+        return reviewVideoUrl;
+    }
+
+    public void setReviewVideoUrl(String reviewVideoUrl) {
+        this.reviewVideoUrl = reviewVideoUrl;
+    }
+
+    public Long getLearnerId() {
+        return learnerId;
+    }
+
+    public void setLearnerId(Long learnerId) {
+        this.learnerId = learnerId;
+    }
+
+    public String getLearnerName() {
+        return learnerName;
+    }
+
+    public void setLearnerName(String learnerName) {
+        this.learnerName = learnerName;
+    }
+
+    public LocalDate getCohortStartDate() {
+        return cohortStartDate;
+    }
+
+    public void setCohortStartDate(LocalDate cohortStartDate) {
+        this.cohortStartDate = cohortStartDate;
+    }
+
+    public Long getReviewerId() {
+        return reviewerId;
+    }
+
+    public void setReviewerId(Long reviewerId) {
+        this.reviewerId = reviewerId;
+    }
+
+    public String getReviewerName() {
+        return reviewerName;
+    }
+
+    public void setReviewerName(String reviewerName) {
+        this.reviewerName = reviewerName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AssignmentExportDto that = (AssignmentExportDto) o;
+        return Objects.equals(getId(), that.getId()) && Objects.equals(getNumber(), that.getNumber())
+                && Objects.equals(getName(), that.getName()) && Objects.equals(getStatus(), that.getStatus())
+                && Objects.equals(getGithubUrl(), that.getGithubUrl()) && Objects.equals(getBranch(), that.getBranch())
+                && Objects.equals(getReviewVideoUrl(), that.getReviewVideoUrl())
+                && Objects.equals(getLearnerId(), that.getLearnerId())
+                && Objects.equals(getLearnerName(), that.getLearnerName())
+                && Objects.equals(getCohortStartDate(), that.getCohortStartDate())
+                && Objects.equals(getReviewerId(), that.getReviewerId())
+                && Objects.equals(getReviewerName(), that.getReviewerName());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getNumber(), getName(), getStatus(), getGithubUrl(), getBranch(),
+                getReviewVideoUrl(), getLearnerId(), getLearnerName(), getCohortStartDate(), getReviewerId(),
+                getReviewerName());
+    }
+
+    @Override
+    public String toString() {
+        return "AssignmentExportDto{" +
+                "id=" + id +
+                ", number=" + number +
+                ", name='" + name + '\'' +
+                ", status='" + status + '\'' +
+                ", githubUrl='" + githubUrl + '\'' +
+                ", branch='" + branch + '\'' +
+                ", reviewVideoUrl='" + reviewVideoUrl + '\'' +
+                ", learnerId=" + learnerId +
+                ", learnerName='" + learnerName + '\'' +
+                ", cohortStartDate=" + cohortStartDate +
+                ", reviewerId=" + reviewerId +
+                ", reviewerName='" + reviewerName + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.hcc.dtos;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * One page of Assignment summaries. The nextCursor is opaque to clients: pass it back as the "after" parameter to get the
+ * following page. It is null on the last page.
+ */
+public class AssignmentPageDto {
+    private List<AssignmentSummaryDto> assignments;
+    private String nextCursor;
+
+    public AssignmentPageDto() {
+    }
+
+    public AssignmentPageDto(List<AssignmentSummaryDto> assignments, String nextCursor) {
+        this.assignments = assignments;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<AssignmentSummaryDto> getAssignments() {
+        return assignments;
+    }
+
+    public void setAssignments(List<AssignmentSummaryDto> assignments) {
+        this.assignments = assignments;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AssignmentPageDto that = (AssignmentPageDto) o;
+        return Objects.equals(getAssignments(), that.getAssignments()) && Objects.equals(getNextCursor(), that.getNextCursor());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getAssignments(), getNextCursor());
+    }
+
+    @Override
+    public String toString() {
+        return "AssignmentPageDto{" +
+                "assignments=" + assignments +
+                ", nextCursor='" + nextCursor + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,62 @@
+package com.hcc.dtos;
+
+import com.hcc.enums.AssignmentStatusEnum;
+
+import java.util.Objects;
+
+/**
+ * Number of Assignments in one status, as computed by the GROUP BY queries in AssignmentRepository.
+ * The status is the AssignmentStatusEnum constant name (e.g. "IN_REVIEW").
+ */
+public class AssignmentStatusCountDto {
+    private String status;
+    private Long count;
+
+    public AssignmentStatusCountDto() {
+    }
+
+    /**
+     * Projection constructor, used by the "select new" queries in AssignmentRepository.
+     */
+    public AssignmentStatusCountDto(AssignmentStatusEnum status, Long count) {
+        this.status = status == null ? null : status.name();
+        this.count = count;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getCount() {
+        return count;
+    }
+
+    public void setCount(Long count) {
+        this.count = count;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AssignmentStatusCountDto that = (AssignmentStatusCountDto) o;
+        return Objects.equals(getStatus(), that.getStatus()) && Objects.equals(getCount(), that.getCount());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getStatus(), getCount());
+    }
+
+    @Override
+    public String toString() {
+        return "AssignmentStatusCountDto{" +
+                "status='" + status + '\'' +
+                ", count=" + count +
+                '}';
+    }
+}
@@ -0,0 +1,126 @@
+package com.hcc.dtos;
+
+import com.hcc.enums.AssignmentEnum;
+import com.hcc.enums.AssignmentStatusEnum;
+
+import java.util.Objects;
+
+/**
+ * Compact, read-only view of an Assignment for the dashboards. It is built directly from a query projection in
+ * AssignmentRepository, so no entities are loaded to produce it.
+ * The status is the AssignmentStatusEnum constant name (e.g. "IN_REVIEW") and the learner and reviewer are reduced
+ * to their ID and username. The reviewer fields are null while the assignment is unclaimed.
+ */
+public class AssignmentSummaryDto {
+    private Long id;
+    private Integer number;
+    private String status;
+    private Long learnerId;
+    private String learnerName;
+    private Long reviewerId;
+    private String reviewerName;
+
+    public AssignmentSummaryDto() {
+    }
+
+    /**
+     * Projection constructor, used by the "select new" queries in AssignmentRepository.
+     */
+    public AssignmentSummaryDto(Long id, Integer number, AssignmentStatusEnum status, Long learnerId,
+                                String learnerName, Long reviewerId, String reviewerName) {
+        this.id = id;
+        this.number = number;
+        this.status = status == null ? null : status.name();
+        this.learnerId = learnerId;
+        this.learnerName = learnerName;
+        this.reviewerId = reviewerId;
+        this.reviewerName = reviewerName;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public void setNumber(Integer number) {
+        this.number = number;
+    }
+
+    //derived from the number, like AssignmentDto.name
+    public String getName() {
+        return AssignmentEnum.getNameByNumber(number);
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getLearnerId() {
+        return learnerId;
+    }
+
+    public void setLearnerId(Long learnerId) {
+        this.learnerId = learnerId;
+    }
+
+    public String getLearnerName() {
+        return learnerName;
+    }
+
+    public void setLearnerName(String learnerName) {
+        this.learnerName = learnerName;
+    }
+
+    public Long getReviewerId() {
+        return reviewerId;
+    }
+
+    public void setReviewerId(Long reviewerId) {
+        this.reviewerId = reviewerId;
+    }
+
+    public String getReviewerName() {
+        return reviewerName;
+    }
+
+    public void setReviewerName(String reviewerName) {
+        this.reviewerName = reviewerName;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AssignmentSummaryDto that = (AssignmentSummaryDto) o;
+        return Objects.equals(getId(), that.getId()) && Objects.equals(getNumber(), that.getNumber()) && Objects.equals(getStatus(), that.getStatus()) && Objects.equals(getLearnerId(), that.getLearnerId()) && Objects.equals(getLearnerName(), that.getLearnerName()) && Objects.equals(getReviewerId(), that.getReviewerId()) && Objects.equals(getReviewerName(), that.getReviewerName());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getNumber(), getStatus(), getLearnerId(), getLearnerName(), getReviewerId(), getReviewerName());
+    }
+
+    @Override
+    public String toString() {
+        return "AssignmentSummaryDto{" +
+                "id=" + id +
+                ", number=" + number +
+                ", status='" + status + '\'' +
+                ", learnerId=" + learnerId +
+                ", learnerName='" + learnerName + '\'' +
+                ", reviewerId=" + reviewerId +
+                ", reviewerName='" + reviewerName + '\'' +
+                '}';
+    }
+}
@@ -4,25 +4,36 @@ import java.util.Objects;
 
 public class AuthCredentialResponse {
     private String token;
+    //sent to the client as an HttpOnly cookie, never in the body
+    private String refreshToken;
 
     public AuthCredentialResponse(String token) {
         this.token = token;
     }
 
+    public AuthCredentialResponse(String token, String refreshToken) {
+        this.token = token;
+        this.refreshToken = refreshToken;
+    }
+
     public String getToken() {
         return token;
     }
 
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         AuthCredentialResponse that = (AuthCredentialResponse) o;
-        return Objects.equals(getToken(), that.getToken());
+        return Objects.equals(getToken(), that.getToken()) && Objects.equals(getRefreshToken(), that.getRefreshToken());
     }
 
     @Override
     public int hashCode() {
-        return Objects.hashCode(getToken());
+        return Objects.hash(getToken(), getRefreshToken());
     }
 }
@@ -0,0 +1,71 @@
+package com.hcc.dtos;
+
+import com.hcc.enums.AssignmentStatusEnum;
+
+import java.util.Objects;
+
+/**
+ * One bucket of a time-in-status histogram: how many transitions left a status after a time within the bucket.
+ * Bucket b holds times from 2^(b/4) up to 2^((b+1)/4) seconds.
+ */
+public class TimeInStatusBucketDto {
+    private AssignmentStatusEnum status;
+    private Integer bucket;
+    private Long transitions;
+
+    public TimeInStatusBucketDto() {
+    }
+
+    public TimeInStatusBucketDto(AssignmentStatusEnum status, Integer bucket, Long transitions) {
+        this.status = status;
+        this.bucket = bucket;
+        this.transitions = transitions;
+    }
+
+    public AssignmentStatusEnum getStatus() {
+        return status;
+    }
+
+    public void setStatus(AssignmentStatusEnum status) {
+        this.status = status;
+    }
+
+    public Integer getBucket() {
+        return bucket;
+    }
+
+    public void setBucket(Integer bucket) {
+        this.bucket = bucket;
+    }
+
+    public Long getTransitions() {
+        return transitions;
+    }
+
+    public void setTransitions(Long transitions) {
+        this.transitions = transitions;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimeInStatusBucketDto that = (TimeInStatusBucketDto) o;
+        return getStatus() == that.getStatus() && Objects.equals(getBucket(), that.getBucket())
+                && Objects.equals(getTransitions(), that.getTransitions());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getStatus(), getBucket(), getTransitions());
+    }
+
+    @Override
+    public String toString() {
+        return "TimeInStatusBucketDto{" +
+                "status=" + status +
+                ", bucket=" + bucket +
+                ", transitions=" + transitions +
+                '}';
+    }
+}
@@ -0,0 +1,94 @@
+package com.hcc.dtos;
+
+import java.util.Objects;
+
+/**
+ * How long Assignments stayed in a status before moving on, for the cohort and assignment number requested.
+ * The status is the AssignmentStatusEnum constant name. Percentiles are in seconds and estimated from histogram
+ * buckets, so they are accurate to within about 10%.
+ */
+public class TimeInStatusDto {
+    private String status;
+    private Long transitions;
+    private Long p50Seconds;
+    private Long p90Seconds;
+    private Long p99Seconds;
+
+    public TimeInStatusDto() {
+    }
+
+    public TimeInStatusDto(String status, Long transitions, Long p50Seconds, Long p90Seconds, Long p99Seconds) {
+        this.status = status;
+        this.transitions = transitions;
+        this.p50Seconds = p50Seconds;
+        this.p90Seconds = p90Seconds;
+        this.p99Seconds = p99Seconds;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getTransitions() {
+        return transitions;
+    }
+
+    public void setTransitions(Long transitions) {
+        this.transitions = transitions;
+    }
+
+    public Long getP50Seconds() {
+        return p50Seconds;
+    }
+
+    public void setP50Seconds(Long p50Seconds) {
+        this.p50Seconds = p50Seconds;
+    }
+
+    public Long getP90Seconds() {
+        return p90Seconds;
+    }
+
+    public void setP90Seconds(Long p90Seconds) {
+        this.p90Seconds = p90Seconds;
+    }
+
+    public Long getP99Seconds() {
+        return p99Seconds;
+    }
+
+    public void setP99Seconds(Long p99Seconds) {
+        this.p99Seconds = p99Seconds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TimeInStatusDto that = (TimeInStatusDto) o;
+        return Objects.equals(getStatus(), that.getStatus()) && Objects.equals(getTransitions(), that.getTransitions())
+                && Objects.equals(getP50Seconds(), that.getP50Seconds())
+                && Objects.equals(getP90Seconds(), that.getP90Seconds())
+                && Objects.equals(getP99Seconds(), that.getP99Seconds());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getStatus(), getTransitions(), getP50Seconds(), getP90Seconds(), getP99Seconds());
+    }
+
+    @Override
+    public String toString() {
+        return "TimeInStatusDto{" +
+                "status='" + status + '\'' +
+                ", transitions=" + transitions +
+                ", p50Seconds=" + p50Seconds +
+                ", p90Seconds=" + p90Seconds +
+                ", p99Seconds=" + p99Seconds +
+                '}';
+    }
+}
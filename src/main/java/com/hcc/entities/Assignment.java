@@ -1,16 +1,36 @@
 package com.hcc.entities;
 
+import com.hcc.converters.AssignmentStatusConverter;
+import com.hcc.enums.AssignmentStatusEnum;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.Objects;
 
 @Entity
 @Table(name = "assignments")
+//second-level cached, see hibernate-cache.conf
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NamedEntityGraph(name = Assignment.WITH_USERS, attributeNodes = {
+        @NamedAttributeNode("user"),
+        @NamedAttributeNode("codeReviewer")
+})
 public class Assignment {
+    //entity graph loading the learner and the reviewer in the same statement as the assignment
+    public static final String WITH_USERS = "Assignment.withUsers";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    //pooled sequence instead of IDENTITY, so inserts can be batched; see V5__pooled_id_sequences.sql
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_id_generator")
+    @SequenceGenerator(name = "assignment_id_generator", sequenceName = "assignments_assignment_id_seq",
+            allocationSize = 50)
     @Column(name = "assignment_id")
     private Long id;
-    private String status;
+    //persisted as the status step, see AssignmentStatusConverter
+    @Convert(converter = AssignmentStatusConverter.class)
+    private AssignmentStatusEnum status;
     private Integer number;
     @Column(name = "github_url")
     private String githubUrl;
@@ -23,6 +43,9 @@ public class Assignment {
     @ManyToOne
     @JoinColumn(name = "code_reviewer_id", referencedColumnName = "user_id")
     private User codeReviewer;
+    //incremented on every update, exposed to clients as the ETag
+    @Version
+    private Long version;
 
     /**
      * no-args constructor
@@ -39,7 +62,7 @@ public class Assignment {
      * @param user the user
      * @param codeReviewer the reviewer
      */
-    public Assignment(String status, Integer number, String githubUrl, String branch, String reviewVideoUrl, User user, User codeReviewer) {
+    public Assignment(AssignmentStatusEnum status, Integer number, String githubUrl, String branch, String reviewVideoUrl, User user, User codeReviewer) {
         this.status = status;
         this.number = number;
         this.githubUrl = githubUrl;
@@ -57,11 +80,11 @@ public class Assignment {
         this.id = id;
     }
 
-    public String getStatus() {
+    public AssignmentStatusEnum getStatus() {
         return status;
     }
 
-    public void setStatus(String status) {
+    public void setStatus(AssignmentStatusEnum status) {
         this.status = status;
     }
 
@@ -113,6 +136,14 @@ public class Assignment {
         this.codeReviewer = codeReviewer;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
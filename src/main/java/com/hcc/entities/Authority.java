@@ -2,16 +2,24 @@ package com.hcc.entities;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.hcc.enums.AuthorityEnum;
+import com.hcc.listeners.UserCacheEvictionListener;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.springframework.security.core.GrantedAuthority;
 
 import javax.persistence.*;
 import java.util.Objects;
 
 @Entity
+@EntityListeners(UserCacheEvictionListener.class)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @Table(name = "authorities")
 public class Authority implements GrantedAuthority {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "authority_id_generator")
+    @SequenceGenerator(name = "authority_id_generator", sequenceName = "authorities_authority_id_seq",
+            allocationSize = 50)
     @Column(name = "authority_id")
     @JsonIgnore
     private Long id;
@@ -0,0 +1,118 @@
+package com.hcc.entities;
+
+import javax.persistence.*;
+import java.time.Instant;
+import java.util.Objects;
+
+@Entity
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_token_id_generator")
+    @SequenceGenerator(name = "refresh_token_id_generator", sequenceName = "refresh_tokens_refresh_token_id_seq",
+            allocationSize = 50)
+    @Column(name = "refresh_token_id")
+    private Long id;
+    //SHA-256 hex digest of the token; the token itself is only ever held by the client
+    @Column(name = "token_hash")
+    private String tokenHash;
+    //shared by a token and all the tokens it was rotated into
+    @Column(name = "family_id")
+    private String familyId;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "user_id")
+    private User user;
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+    @Column(name = "replaced_at")
+    private Instant replacedAt;
+
+    public RefreshToken() {}
+
+    /**
+     * all args except id and replacedAt
+     * @param tokenHash digest of the token
+     * @param familyId the family of the token
+     * @param user the User the token was issued to
+     * @param expiresAt expiration of the token
+     */
+    public RefreshToken(String tokenHash, String familyId, User user, Instant expiresAt) {
+        this.tokenHash = tokenHash;
+        this.familyId = familyId;
+        this.user = user;
+        this.expiresAt = expiresAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    public String getFamilyId() {
+        return familyId;
+    }
+
+    public void setFamilyId(String familyId) {
+        this.familyId = familyId;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(Instant expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public Instant getReplacedAt() {
+        return replacedAt;
+    }
+
+    public void setReplacedAt(Instant replacedAt) {
+        this.replacedAt = replacedAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RefreshToken that = (RefreshToken) o;
+        return Objects.equals(getId(), that.getId()) && Objects.equals(getTokenHash(), that.getTokenHash())
+                && Objects.equals(getFamilyId(), that.getFamilyId()) && Objects.equals(getExpiresAt(),
+                that.getExpiresAt()) && Objects.equals(getReplacedAt(), that.getReplacedAt());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getId(), getTokenHash(), getFamilyId(), getExpiresAt(), getReplacedAt());
+    }
+
+    @Override
+    public String toString() {
+        return "RefreshToken{" +
+                "id=" + id +
+                ", familyId='" + familyId + '\'' +
+                ", expiresAt=" + expiresAt +
+                ", replacedAt=" + replacedAt +
+                '}';
+    }
+}
@@ -25,4 +25,22 @@ public enum AssignmentStatusEnum {
     public Integer getStep() {
         return step;
     }
+
+    public static AssignmentStatusEnum fromStatus(String status) {
+        for (AssignmentStatusEnum value : values()) {
+            if (value.getStatus().equals(status)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown assignment status: " + status);
+    }
+
+    public static AssignmentStatusEnum fromStep(Integer step) {
+        for (AssignmentStatusEnum value : values()) {
+            if (value.getStep().equals(step)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown assignment status step: " + step);
+    }
 }
\ No newline at end of file
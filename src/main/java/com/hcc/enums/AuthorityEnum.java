@@ -2,5 +2,6 @@ package com.hcc.enums;
 
 public enum AuthorityEnum {
     ROLE_LEARNER,
-    ROLE_REVIEWER
+    ROLE_REVIEWER,
+    ROLE_ADMIN
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.hcc.enums;
+
+public enum ExportFormatEnum {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private String contentType;
+    ExportFormatEnum(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public static ExportFormatEnum fromFormat(String format) {
+        for (ExportFormatEnum value : values()) {
+            if (value.name().equalsIgnoreCase(format)) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Unknown export format: " + format);
+    }
+}
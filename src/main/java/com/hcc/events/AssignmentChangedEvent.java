@@ -0,0 +1,42 @@
+package com.hcc.events;
+
+import com.hcc.dtos.AssignmentSummaryDto;
+
+import java.util.Objects;
+
+/**
+ * Published by AssignmentService whenever an Assignment is created or updated. Listeners that push changes to
+ * clients must only act after the transaction commits.
+ */
+public class AssignmentChangedEvent {
+    private final AssignmentSummaryDto assignment;
+
+    public AssignmentChangedEvent(AssignmentSummaryDto assignment) {
+        this.assignment = assignment;
+    }
+
+    //the Assignment as it is after the change
+    public AssignmentSummaryDto getAssignment() {
+        return assignment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AssignmentChangedEvent that = (AssignmentChangedEvent) o;
+        return Objects.equals(getAssignment(), that.getAssignment());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(getAssignment());
+    }
+
+    @Override
+    public String toString() {
+        return "AssignmentChangedEvent{" +
+                "assignment=" + assignment +
+                '}';
+    }
+}
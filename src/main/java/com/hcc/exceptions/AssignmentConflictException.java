@@ -0,0 +1,7 @@
+package com.hcc.exceptions;
+
+public class AssignmentConflictException extends RuntimeException {
+    private static final long serialVersionUID = -4529178731256218803L;
+
+    public AssignmentConflictException(String message) { super(message); }
+}
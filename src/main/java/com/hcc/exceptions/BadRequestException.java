@@ -0,0 +1,7 @@
+package com.hcc.exceptions;
+
+public class BadRequestException extends RuntimeException {
+    private static final long serialVersionUID = 2906139853071284215L;
+
+    public BadRequestException(String message) { super(message); }
+}
@@ -0,0 +1,7 @@
+package com.hcc.exceptions;
+
+public class LoginOverloadedException extends RuntimeException {
+    private static final long serialVersionUID = 6482059318270481923L;
+
+    public LoginOverloadedException(String message) { super(message); }
+}
@@ -0,0 +1,16 @@
+package com.hcc.exceptions;
+
+public class LoginThrottledException extends RuntimeException {
+    private static final long serialVersionUID = 3390628157713489044L;
+
+    private final long retryAfterSeconds;
+
+    public LoginThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,7 @@
+package com.hcc.exceptions;
+
+public class PreconditionFailedException extends RuntimeException {
+    private static final long serialVersionUID = 6318820914572230417L;
+
+    public PreconditionFailedException(String message) { super(message); }
+}
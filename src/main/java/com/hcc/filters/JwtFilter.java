@@ -1,11 +1,17 @@
 package com.hcc.filters;
 
-import com.hcc.repositories.UserRepository;
+import com.hcc.services.AuthorityVersionService;
+import com.hcc.services.TokenRevocationService;
+import com.hcc.services.UserDetailServiceImpl;
 import com.hcc.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -24,11 +30,20 @@ import static org.springframework.util.ObjectUtils.isEmpty;
 @Component
 public class JwtFilter extends OncePerRequestFilter {
     @Autowired
-    private UserRepository userRepo;
+    private UserDetailServiceImpl userDetailService;
 
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private AuthorityVersionService authorityVersionService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    //when enabled, the principal is built from the signed claims instead of being loaded per request
+    @Value("${jwt.claims-authentication.enabled:false}")
+    private boolean claimsAuthenticationEnabled;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -43,10 +58,25 @@ public class JwtFilter extends OncePerRequestFilter {
         // Get Jwt Token
         final String token = header.split(" ")[1].trim();
 
+        // Parse and verify the token once
+        final Claims claims;
+        try {
+            claims = jwtUtil.parseToken(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            filterChain.doFilter(request,response);
+            return;
+        }
+
+        // Reject revoked tokens, from memory
+        if (tokenRevocationService.isRevoked(claims.getId())) {
+            filterChain.doFilter(request,response);
+            return;
+        }
+
         // Get user identity
-        UserDetails userDetails = userRepo.findByUsername(jwtUtil.getUsernameFromToken(token)).orElse(null);
+        UserDetails userDetails = resolveUser(claims);
 
-        if (!jwtUtil.validateToken(token, userDetails)) {
+        if (!jwtUtil.validateToken(claims, userDetails)) {
             filterChain.doFilter(request,response);
             return;
         }
@@ -65,4 +95,26 @@ public class JwtFilter extends OncePerRequestFilter {
         filterChain.doFilter(request,response);
 
     }
-}
\ No newline at end of file
+
+    /**
+     * Resolves the user a verified token belongs to. In claims authentication mode, tokens that carry identity claims
+     * are trusted as long as their authorities version is still current; older tokens and the default mode load the
+     * user through the cached UserDetailServiceImpl.
+     * @param claims the verified claims
+     * @return the user, or null if the user does not exist or their authorities changed since the token was issued
+     */
+    private UserDetails resolveUser(Claims claims) {
+        if (claimsAuthenticationEnabled && jwtUtil.hasIdentityClaims(claims)) {
+            String currentVersion = authorityVersionService.getCurrentVersion(claims.getSubject());
+            if (currentVersion == null || !currentVersion.equals(jwtUtil.getAuthoritiesVersion(claims))) {
+                return null;
+            }
+            return jwtUtil.getUserFromClaims(claims);
+        }
+        try {
+            return userDetailService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+    }
+}
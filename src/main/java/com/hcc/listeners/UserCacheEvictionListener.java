@@ -0,0 +1,57 @@
+package com.hcc.listeners;
+
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.services.AuthorityVersionService;
+import com.hcc.services.UserDetailServiceImpl;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA entity listener that evicts cached user data whenever a User or one of its Authorities is written.
+ * The entry is evicted right away and again after commit, so a concurrent lookup cannot re-cache the old state.
+ * Instantiated by Hibernate through Spring, hence the lazily resolved dependencies.
+ */
+public class UserCacheEvictionListener {
+    @Autowired
+    private ObjectProvider<UserDetailServiceImpl> userDetailService;
+    @Autowired
+    private ObjectProvider<AuthorityVersionService> authorityVersionService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Object entity) {
+        String username = null;
+        if (entity instanceof User) {
+            username = ((User) entity).getUsername();
+        } else if (entity instanceof Authority && ((Authority) entity).getUser() != null) {
+            username = ((Authority) entity).getUser().getUsername();
+        }
+        if (username == null) {
+            return;
+        }
+
+        final String evicted = username;
+        evictNow(evicted);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(evicted);
+                }
+            });
+        }
+    }
+
+    private void evictNow(String username) {
+        userDetailService.ifAvailable(service -> service.evict(username));
+        authorityVersionService.ifAvailable(service -> service.evict(username));
+    }
+}
@@ -2,9 +2,13 @@ package com.hcc.mappers;
 
 import com.hcc.dtos.AssignmentCreateDto;
 import com.hcc.dtos.AssignmentDto;
+import com.hcc.dtos.AssignmentExportDto;
+import com.hcc.dtos.AssignmentSummaryDto;
 import com.hcc.entities.Assignment;
+import com.hcc.entities.User;
 import com.hcc.enums.AssignmentEnum;
 import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.exceptions.BadRequestException;
 import org.mapstruct.*;
 
 import java.util.List;
@@ -15,11 +19,28 @@ public interface AssignmentMapper {
         return AssignmentEnum.getNameByNumber(num);
     }
 
+    //DTOs keep the display text ("In Review") as the status, the entity holds the enum
+    default String mapStatusToText(AssignmentStatusEnum status) {
+        return status == null ? null : status.getStatus();
+    }
+
+    default AssignmentStatusEnum mapTextToStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return AssignmentStatusEnum.fromStatus(status);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+    }
+
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "number", ignore = true)
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "reviewVideoUrl", ignore = true)
     @Mapping(target = "codeReviewer", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateLearnerFields(AssignmentDto dto, @MappingTarget Assignment source);
 
@@ -29,6 +50,7 @@ public interface AssignmentMapper {
     @Mapping(target = "user", ignore = true)
     @Mapping(target = "githubUrl", ignore = true)
     @Mapping(target = "branch", ignore = true)
+    @Mapping(target = "version", ignore = true)
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     void updateReviewerFields(AssignmentDto dto, @MappingTarget Assignment source);
 
@@ -42,6 +64,26 @@ public interface AssignmentMapper {
 
     List<Assignment> toAssignmentList(List<AssignmentDto> assignmentDtos);
 
+    //summaries hold the status constant name and only the ids and usernames of the users
+    default AssignmentSummaryDto toSummary(Assignment assignment) {
+        User learner = assignment.getUser();
+        User reviewer = assignment.getCodeReviewer();
+        return new AssignmentSummaryDto(assignment.getId(), assignment.getNumber(), assignment.getStatus(),
+                learner == null ? null : learner.getId(), learner == null ? null : learner.getUsername(),
+                reviewer == null ? null : reviewer.getId(), reviewer == null ? null : reviewer.getUsername());
+    }
+
+    //exports hold the status constant name, like summaries
+    @Mapping(target = "name", expression = "java(mapNumberToName(assignment.getNumber()))")
+    @Mapping(target = "status",
+            expression = "java(assignment.getStatus() == null ? null : assignment.getStatus().name())")
+    @Mapping(target = "learnerId", source = "user.id")
+    @Mapping(target = "learnerName", source = "user.username")
+    @Mapping(target = "cohortStartDate", source = "user.cohortStartDate")
+    @Mapping(target = "reviewerId", source = "codeReviewer.id")
+    @Mapping(target = "reviewerName", source = "codeReviewer.username")
+    AssignmentExportDto toExport(Assignment assignment);
+
     AssignmentCreateDto toCreateDto(Assignment assignment);
 
     Assignment toAssignment(AssignmentCreateDto dto);
@@ -0,0 +1,102 @@
+package com.hcc.repositories;
+
+import com.hcc.dtos.TimeInStatusBucketDto;
+import com.hcc.enums.AssignmentStatusEnum;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access to the assignment_status_events log and the assignment_time_in_status histograms built from it (see
+ * V6__assignment_status_events.sql). These tables are not mapped as entities; they are written by a trigger and by
+ * set-based statements only. Events are folded by the transaction that wrote them (see V11__status_events_txid.sql).
+ */
+@Repository
+public class AssignmentAnalyticsRepository {
+    static final String TIME_IN_STATUS = "time_in_status";
+
+    //folds the events of the transactions in [?, ?) into the histograms: the time each transition spent in its
+    //from_status is the gap to the previous event of the same assignment, found through idx_status_events_assignment
+    private static final String FOLD_EVENTS =
+            "insert into assignment_time_in_status " +
+            "(cohort_start_date, assignment_number, status, bucket, transitions) " +
+            "select u.date, a.number, e.from_status, " +
+            "floor(4 * log(2.0, greatest(extract(epoch from e.changed_at - p.changed_at), 1)))::int4 as bucket, " +
+            "count(*) " +
+            "from assignment_status_events e " +
+            "join assignments a on a.assignment_id = e.assignment_id " +
+            "left join users u on u.user_id = a.user_id " +
+            "cross join lateral (select pe.changed_at from assignment_status_events pe " +
+            "where pe.assignment_id = e.assignment_id and pe.event_id < e.event_id " +
+            "order by pe.event_id desc limit 1) p " +
+            "where e.txid >= ? and e.txid < ? and e.from_status is not null " +
+            "group by u.date, a.number, e.from_status, bucket " +
+            "on conflict on constraint uk_time_in_status " +
+            "do update set transitions = assignment_time_in_status.transitions + excluded.transitions";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Reads the time-in-status watermark, locking it until the transaction ends so only one aggregator runs at a time.
+     * @return the id of the oldest transaction whose events have not been folded
+     */
+    public long lockTimeInStatusWatermark() {
+        return jdbcTemplate.queryForObject("select next_txid from assignment_analytics_watermarks " +
+                "where name = ? for update", Long.class, TIME_IN_STATUS);
+    }
+
+    /**
+     * Finds the end of the next batch of events to fold: the transactions from fromTxid on, up to about batchSize
+     * events, and never a transaction at or above the xmin of the current snapshot, which may still be writing
+     * events. A transaction is never split, so a batch holds more events when one transaction wrote more than
+     * batchSize. A transaction left open elsewhere holds the batches back until it ends.
+     * @return the transaction id the batch ends before, or null if there is nothing to fold
+     */
+    public Long findBatchEnd(long fromTxid, int batchSize) {
+        return jdbcTemplate.queryForObject("select case when exists (select 1 from assignment_status_events " +
+                "where txid >= ? and txid < bound.end_txid) then bound.end_txid end " +
+                "from (select least(pg_snapshot_xmin(pg_current_snapshot())::text::int8, greatest(? + 1, coalesce(" +
+                "(select txid from assignment_status_events where txid >= ? order by txid offset ? limit 1), " +
+                "9223372036854775807))) as end_txid) bound",
+                Long.class, fromTxid, fromTxid, fromTxid, batchSize);
+    }
+
+    /**
+     * Adds the events of the transactions in [fromTxid, toTxid) to the histograms and moves the watermark to toTxid.
+     */
+    public void foldTimeInStatus(long fromTxid, long toTxid) {
+        jdbcTemplate.update(FOLD_EVENTS, fromTxid, toTxid);
+        jdbcTemplate.update("update assignment_analytics_watermarks set next_txid = ? where name = ?",
+                toTxid, TIME_IN_STATUS);
+    }
+
+    /**
+     * Reads the time-in-status histograms, merged over the cohorts and assignment numbers not filtered on.
+     * @param cohortStartDate the learner cohort, or null for all
+     * @param assignmentNumber the assignment number, or null for all
+     * @return the non-empty buckets, ordered by status and bucket
+     */
+    public List<TimeInStatusBucketDto> findTimeInStatusHistograms(LocalDate cohortStartDate, Integer assignmentNumber) {
+        StringBuilder sql = new StringBuilder("select status, bucket, sum(transitions) " +
+                "from assignment_time_in_status where true");
+        List<Object> parameters = new ArrayList<>();
+        if (cohortStartDate != null) {
+            sql.append(" and cohort_start_date = ?");
+            parameters.add(cohortStartDate);
+        }
+        if (assignmentNumber != null) {
+            sql.append(" and assignment_number = ?");
+            parameters.add(assignmentNumber);
+        }
+        sql.append(" group by status, bucket order by status, bucket");
+        return jdbcTemplate.query(sql.toString(),
+                (rs, rowNum) -> new TimeInStatusBucketDto(AssignmentStatusEnum.fromStep(rs.getInt(1)), rs.getInt(2),
+                        rs.getLong(3)),
+                parameters.toArray());
+    }
+}
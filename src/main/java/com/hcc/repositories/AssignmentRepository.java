@@ -1,19 +1,163 @@
 package com.hcc.repositories;
 
+import com.hcc.dtos.AssignmentStatusCountDto;
+import com.hcc.dtos.AssignmentSummaryDto;
 import com.hcc.entities.Assignment;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_REGION;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
-public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
+public interface AssignmentRepository extends JpaRepository<Assignment, Long>, AssignmentRepositoryCustom {
+    String SUMMARY_SELECT = "select new com.hcc.dtos.AssignmentSummaryDto(a.id, a.number, a.status, " +
+            "u.id, u.username, r.id, r.username) " +
+            "from Assignment a left join a.user u left join a.codeReviewer r ";
+    //query cache region of the finders below. Hibernate invalidates a cached result whenever this instance writes a
+    //table it read from; writes made by other instances show once the result expires (see hibernate-cache.conf)
+    String QUERY_CACHE_REGION = "assignment-queries";
+    int EXPORT_FETCH_SIZE = 500;
+
     //learner assignments
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @EntityGraph(Assignment.WITH_USERS)
     List<Assignment> findByUserId(Long learnerId);
 
     //query assignments associated with a Reviewer and a provided status
-    List<Assignment> findByCodeReviewerIdAndStatus(Long reviewerId, String status);
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @EntityGraph(Assignment.WITH_USERS)
+    List<Assignment> findByCodeReviewerIdAndStatus(Long reviewerId, AssignmentStatusEnum status);
 
     //query assignments by status
-    List<Assignment> findByStatus(String status);
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @EntityGraph(Assignment.WITH_USERS)
+    List<Assignment> findByStatus(AssignmentStatusEnum status);
+
+    //learner dashboard, projected straight into summaries without hydrating any entity
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @Query(SUMMARY_SELECT + "where a.user.id = :learnerId order by a.id")
+    List<AssignmentSummaryDto> findLearnerDashboard(@Param("learnerId") Long learnerId);
+
+    //reviewer dashboard in one round trip: every submitted assignment plus the reviewer's own assignments in the
+    //claimed statuses. The filters use the foreign key columns (a.codeReviewer.id, not r.id) so both branches of
+    //the OR can be answered from assignments indexes
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @Query(SUMMARY_SELECT +
+            "where a.status = :submitted or (a.codeReviewer.id = :reviewerId and a.status in :claimedStatuses) " +
+            "order by a.id")
+    List<AssignmentSummaryDto> findReviewerDashboard(
+            @Param("reviewerId") Long reviewerId,
+            @Param("submitted") AssignmentStatusEnum submitted,
+            @Param("claimedStatuses") Collection<AssignmentStatusEnum> claimedStatuses);
+
+    //keyset page of a learner's assignments: rows after the cursor id, in id order, limited by the pageable size
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @Query(SUMMARY_SELECT + "where a.user.id = :learnerId and a.id > :afterId order by a.id")
+    List<AssignmentSummaryDto> findLearnerPage(@Param("learnerId") Long learnerId,
+                                               @Param("afterId") Long afterId,
+                                               Pageable pageable);
+
+    //keyset page of the reviewer dashboard, same rows as findReviewerDashboard
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @Query(SUMMARY_SELECT +
+            "where a.id > :afterId " +
+            "and (a.status = :submitted or (a.codeReviewer.id = :reviewerId and a.status in :claimedStatuses)) " +
+            "order by a.id")
+    List<AssignmentSummaryDto> findReviewerDashboardPage(
+            @Param("reviewerId") Long reviewerId,
+            @Param("submitted") AssignmentStatusEnum submitted,
+            @Param("claimedStatuses") Collection<AssignmentStatusEnum> claimedStatuses,
+            @Param("afterId") Long afterId,
+            Pageable pageable);
+
+    //number of a learner's assignments in each status, for the dashboard badges
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @Query("select new com.hcc.dtos.AssignmentStatusCountDto(a.status, count(a)) from Assignment a " +
+            "where a.user.id = :learnerId group by a.status")
+    List<AssignmentStatusCountDto> countLearnerDashboard(@Param("learnerId") Long learnerId);
+
+    //number of assignments in each status on the reviewer dashboard, same rows as findReviewerDashboard
+    @QueryHints({@QueryHint(name = HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
+    @Query("select new com.hcc.dtos.AssignmentStatusCountDto(a.status, count(a)) from Assignment a " +
+            "where a.status = :submitted or (a.codeReviewer.id = :reviewerId and a.status in :claimedStatuses) " +
+            "group by a.status")
+    List<AssignmentStatusCountDto> countReviewerDashboard(
+            @Param("reviewerId") Long reviewerId,
+            @Param("submitted") AssignmentStatusEnum submitted,
+            @Param("claimedStatuses") Collection<AssignmentStatusEnum> claimedStatuses);
+
+    //ids of the assignments whose GitHub URL or branch matches an ILIKE pattern, best match first. Both filters are
+    //answered from the trigram indexes of V7__assignment_search_indexes.sql, so the pattern may start with a wildcard
+    @Query(value = "select assignment_id from assignments " +
+            "where github_url ilike :pattern or branch ilike :pattern " +
+            "order by greatest(similarity(github_url, :query), similarity(branch, :query)) desc, assignment_id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<Long> searchIds(@Param("query") String query,
+                         @Param("pattern") String pattern,
+                         @Param("limit") int limit,
+                         @Param("offset") long offset);
+
+    //every assignment with its learner and reviewer, in id order, read through a server-side cursor
+    //EXPORT_FETCH_SIZE rows at a time. Read-only and bypassing the second-level cache, since each row is read once.
+    //Must be consumed in a transaction and closed
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select a from Assignment a left join fetch a.user left join fetch a.codeReviewer order by a.id")
+    Stream<Assignment> streamAllForExport();
+
+    //same as streamAllForExport, for the learners of one cohort
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE")})
+    @Query("select a from Assignment a join fetch a.user u left join fetch a.codeReviewer " +
+            "where u.cohortStartDate = :cohortStartDate order by a.id")
+    Stream<Assignment> streamCohortForExport(@Param("cohortStartDate") LocalDate cohortStartDate);
+
+    //summaries of the given assignments, in id order
+    @Query(SUMMARY_SELECT + "where a.id in :ids order by a.id")
+    List<AssignmentSummaryDto> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    //locks the longest-waiting SUBMITTED (status step 2) assignments, in submission order (submitted_at, set by a
+    //trigger), skipping rows another transaction has locked, so concurrent reviewers each get different rows without
+    //waiting. The status is a literal, not a parameter: a generic plan with a bound status could not use the partial
+    //index idx_assignments_submitted. Must run in a transaction; the locks are held until it ends
+    @Query(value = "select assignment_id from assignments where status = 2 " +
+            "order by submitted_at, assignment_id limit :count for update skip locked", nativeQuery = true)
+    List<Long> lockOldestSubmitted(@Param("count") int count);
+
+    //assigns the given assignments to a reviewer
+    @Modifying(clearAutomatically = true)
+    @Query("update Assignment a set a.status = :status, a.codeReviewer = :reviewer, a.version = a.version + 1 " +
+            "where a.id in :ids")
+    int claim(@Param("ids") Collection<Long> ids,
+              @Param("reviewer") User reviewer,
+              @Param("status") AssignmentStatusEnum status);
 }
@@ -0,0 +1,16 @@
+package com.hcc.repositories;
+
+import com.hcc.entities.Assignment;
+
+public interface AssignmentRepositoryCustom {
+    /**
+     * Updates an Assignment with a single statement, without loading it first. Only the non-null editable fields of
+     * the changes (status, githubUrl, branch, reviewVideoUrl, codeReviewer) are written, and the version is
+     * incremented. The persistence context is flushed before and cleared after the update.
+     * @param id the ID of the Assignment
+     * @param expectedVersion the version the change is based on, or null to update whatever the current version is
+     * @param changes the fields to write
+     * @return the number of updated rows: 0 if the Assignment does not exist or its version is not expectedVersion
+     */
+    int updateNonNullFields(Long id, Long expectedVersion, Assignment changes);
+}
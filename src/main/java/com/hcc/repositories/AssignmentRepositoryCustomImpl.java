@@ -0,0 +1,59 @@
+package com.hcc.repositories;
+
+import com.hcc.entities.Assignment;
+import com.hcc.entities.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+public class AssignmentRepositoryCustomImpl implements AssignmentRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @Transactional
+    public int updateNonNullFields(Long id, Long expectedVersion, Assignment changes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Assignment> update = cb.createCriteriaUpdate(Assignment.class);
+        Root<Assignment> root = update.from(Assignment.class);
+
+        if (changes.getStatus() != null) {
+            update.set(root.get("status"), changes.getStatus());
+        }
+        if (changes.getGithubUrl() != null) {
+            update.set(root.get("githubUrl"), changes.getGithubUrl());
+        }
+        if (changes.getBranch() != null) {
+            update.set(root.get("branch"), changes.getBranch());
+        }
+        if (changes.getReviewVideoUrl() != null) {
+            update.set(root.get("reviewVideoUrl"), changes.getReviewVideoUrl());
+        }
+        if (changes.getCodeReviewer() != null) {
+            //only the reviewer's ID is written, no need to load the user
+            update.set(root.get("codeReviewer"),
+                    entityManager.getReference(User.class, changes.getCodeReviewer().getId()));
+        }
+        Path<Long> version = root.get("version");
+        update.set(version, cb.sum(version, 1L));
+
+        Predicate matches = cb.equal(root.get("id"), id);
+        if (expectedVersion != null) {
+            matches = cb.and(matches, cb.equal(version, expectedVersion));
+        }
+        update.where(matches);
+
+        //same as @Modifying(flushAutomatically = true, clearAutomatically = true): pending changes are written first
+        //and no stale copy of the Assignment stays in the persistence context
+        entityManager.flush();
+        int updated = entityManager.createQuery(update).executeUpdate();
+        entityManager.clear();
+        return updated;
+    }
+}
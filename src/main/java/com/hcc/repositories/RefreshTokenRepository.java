@@ -0,0 +1,32 @@
+package com.hcc.repositories;
+
+import com.hcc.entities.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+    //one statement through uk_refresh_tokens_hash, with the user and authorities needed for the new access token
+    @Query("select t from RefreshToken t join fetch t.user u left join fetch u.authorities " +
+            "where t.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    //claims a token for rotation; 0 rows means another request rotated it first
+    @Modifying
+    @Query("update RefreshToken t set t.replacedAt = :now where t.id = :id and t.replacedAt is null")
+    int markReplaced(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.familyId = :familyId")
+    int deleteFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("delete from RefreshToken t where t.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,51 @@
+package com.hcc.repositories;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Access to the revoked_tokens table of V9__revoked_tokens.sql. The table is only read in bulk, by
+ * TokenRevocationService, never per request.
+ */
+@Repository
+public class RevokedTokenRepository {
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records a revoked token. Revoking a token twice keeps the first record.
+     */
+    public void insert(String jti, Instant expiresAt) {
+        jdbcTemplate.update("insert into revoked_tokens (jti, expires_at) values (?, ?) on conflict (jti) do nothing",
+                jti, Timestamp.from(expiresAt));
+    }
+
+    /**
+     * Reads the unexpired tokens revoked after an instant.
+     * @param revokedAfter the instant, or null for all of them
+     * @return the expiration of each token, by jti
+     */
+    public Map<String, Instant> findUnexpired(Instant revokedAfter) {
+        Map<String, Instant> revoked = new HashMap<>();
+        Timestamp after = Timestamp.from(revokedAfter == null ? Instant.EPOCH : revokedAfter);
+        jdbcTemplate.query("select jti, expires_at from revoked_tokens where revoked_at > ? and expires_at > now()",
+                rs -> {
+                    revoked.put(rs.getString(1), rs.getTimestamp(2).toInstant());
+                }, after);
+        return revoked;
+    }
+
+    /**
+     * Deletes the records of tokens that have expired anyway.
+     * @return the number of records deleted
+     */
+    public int deleteExpired() {
+        return jdbcTemplate.update("delete from revoked_tokens where expires_at <= now()");
+    }
+}
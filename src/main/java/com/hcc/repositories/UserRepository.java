@@ -2,6 +2,7 @@ package com.hcc.repositories;
 
 import com.hcc.entities.User;
 import com.hcc.exceptions.ResourceNotFoundException;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -9,5 +10,7 @@ import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    //identity lookup; authorities are lazy elsewhere, so they are fetched here in the same statement
+    @EntityGraph(attributePaths = "authorities")
     Optional<User> findByUsername(String username);
 }
\ No newline at end of file
@@ -0,0 +1,112 @@
+package com.hcc.services;
+
+import com.hcc.dtos.TimeInStatusBucketDto;
+import com.hcc.dtos.TimeInStatusDto;
+import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.exceptions.UnauthorizedAccessException;
+import com.hcc.repositories.AssignmentAnalyticsRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Time-in-status analytics. Every status change of an Assignment is appended to assignment_status_events by a
+ * database trigger; this service folds new events into per-cohort and per-assignment-number histograms in the
+ * background, and answers percentile queries from those histograms only, so the event log is never read on the
+ * request path.
+ */
+@Service
+public class AssignmentAnalyticsService {
+    private final Logger log = LogManager.getLogger(AssignmentAnalyticsService.class);
+
+    @Autowired
+    private AssignmentAnalyticsRepository analyticsRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${analytics.time-in-status.batch-size:10000}")
+    private int batchSize = 10000;
+
+    /**
+     * Folds the events logged since the last run into the time-in-status histograms, one batch per transaction.
+     */
+    @Scheduled(initialDelayString = "${analytics.time-in-status.interval-ms:60000}",
+            fixedDelayString = "${analytics.time-in-status.interval-ms:60000}")
+    public void foldStatusEvents() {
+        int batches = 0;
+        while (Boolean.TRUE.equals(transactionTemplate.execute(status -> foldNextBatch()))) {
+            batches++;
+        }
+        if (batches > 0) {
+            log.info("Folded {} batches of assignment status events", batches);
+        }
+    }
+
+    private boolean foldNextBatch() {
+        long watermark = analyticsRepository.lockTimeInStatusWatermark();
+        Long batchEnd = analyticsRepository.findBatchEnd(watermark, batchSize);
+        if (batchEnd == null) {
+            return false;
+        }
+        analyticsRepository.foldTimeInStatus(watermark, batchEnd);
+        return true;
+    }
+
+    /**
+     * GET ENDPOINT for Reviewers
+     * Retrieves how long Assignments stayed in each status before moving on.
+     * @param user the User asking, who must be a Reviewer
+     * @param cohortStartDate the learner cohort, or null for every cohort
+     * @param assignmentNumber the assignment number, or null for every assignment
+     * @return one entry per status that has been left at least once, in step order
+     */
+    public List<TimeInStatusDto> getTimeInStatus(User user, LocalDate cohortStartDate, Integer assignmentNumber) {
+        if (user.getAuthorities().stream()
+                .noneMatch(auth -> auth.getAuthority().equals(AuthorityEnum.ROLE_REVIEWER.name()))) {
+            log.error("User is not permitted to read assignment analytics");
+            throw new UnauthorizedAccessException("Only reviewers can read assignment analytics");
+        }
+
+        Map<String, List<TimeInStatusBucketDto>> histograms = new LinkedHashMap<>();
+        for (TimeInStatusBucketDto bucket :
+                analyticsRepository.findTimeInStatusHistograms(cohortStartDate, assignmentNumber)) {
+            histograms.computeIfAbsent(bucket.getStatus().name(), status -> new ArrayList<>()).add(bucket);
+        }
+
+        List<TimeInStatusDto> timeInStatus = new ArrayList<>();
+        histograms.forEach((status, buckets) -> {
+            long transitions = buckets.stream().mapToLong(TimeInStatusBucketDto::getTransitions).sum();
+            timeInStatus.add(new TimeInStatusDto(status, transitions, percentile(buckets, transitions, 0.5),
+                    percentile(buckets, transitions, 0.9), percentile(buckets, transitions, 0.99)));
+        });
+        return timeInStatus;
+    }
+
+    /**
+     * Estimates a percentile from buckets ordered by bucket number, as the geometric middle of the bucket holding it.
+     */
+    static long percentile(List<TimeInStatusBucketDto> buckets, long transitions, double quantile) {
+        long rank = (long) Math.ceil(quantile * transitions);
+        long seen = 0;
+        TimeInStatusBucketDto bucket = buckets.get(buckets.size() - 1);
+        for (TimeInStatusBucketDto candidate : buckets) {
+            seen += candidate.getTransitions();
+            if (seen >= rank) {
+                bucket = candidate;
+                break;
+            }
+        }
+        return Math.round(Math.pow(2, (bucket.getBucket() + 0.5) / 4));
+    }
+}
@@ -0,0 +1,138 @@
+package com.hcc.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.hcc.dtos.AssignmentExportDto;
+import com.hcc.entities.Assignment;
+import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.enums.ExportFormatEnum;
+import com.hcc.exceptions.UnauthorizedAccessException;
+import com.hcc.mappers.AssignmentMapper;
+import com.hcc.repositories.AssignmentRepository;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Exports Assignments for reporting. Rows are read through a server-side cursor in a read-only transaction and
+ * written to the response as they arrive; the persistence context is cleared after every fetch, so memory stays
+ * flat however many rows are exported and the first rows are sent before the last ones are read.
+ */
+@Service
+public class AssignmentExportService {
+    static final String CSV_HEADER = "id,number,name,status,githubUrl,branch,reviewVideoUrl,learnerId,learnerName," +
+            "cohortStartDate,reviewerId,reviewerName";
+
+    private final Logger log = LogManager.getLogger(AssignmentExportService.class);
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private AssignmentMapper mapper = Mappers.getMapper(AssignmentMapper.class);
+
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    public void init() {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * GET ENDPOINT for Reviewers
+     * Exports every Assignment, or those of one cohort, in id order. Permissions are checked right away; the rows
+     * are read when the returned body is written.
+     * @param user the User exporting, who must be a Reviewer
+     * @param cohortStartDate the learner cohort, or null for every cohort
+     * @param format the format of the rows
+     * @return the response body writing the export
+     */
+    public StreamingResponseBody exportAssignments(User user, LocalDate cohortStartDate, ExportFormatEnum format) {
+        if (user.getAuthorities().stream()
+                .noneMatch(auth -> auth.getAuthority().equals(AuthorityEnum.ROLE_REVIEWER.name()))) {
+            log.error("User is not permitted to export Assignments");
+            throw new UnauthorizedAccessException("Only reviewers can export assignments");
+        }
+        return out -> readOnlyTransaction.executeWithoutResult(status -> write(cohortStartDate, format, out));
+    }
+
+    private void write(LocalDate cohortStartDate, ExportFormatEnum format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        ObjectWriter jsonWriter = objectMapper.writerFor(AssignmentExportDto.class);
+        long rows = 0;
+        try (Stream<Assignment> assignments = cohortStartDate == null ?
+                assignmentRepository.streamAllForExport() :
+                assignmentRepository.streamCohortForExport(cohortStartDate)) {
+            if (format == ExportFormatEnum.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<Assignment> iterator = assignments.iterator();
+            while (iterator.hasNext()) {
+                AssignmentExportDto dto = mapper.toExport(iterator.next());
+                if (format == ExportFormatEnum.CSV) {
+                    writer.write(toCsvRow(dto));
+                } else {
+                    writer.write(jsonWriter.writeValueAsString(dto));
+                }
+                writer.write('\n');
+                rows++;
+                //send the first row right away, then drop and send each fetched batch
+                if (rows == 1 || rows % AssignmentRepository.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                    writer.flush();
+                }
+            }
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.info("Exported {} assignments as {}", rows, format);
+    }
+
+    static String toCsvRow(AssignmentExportDto dto) {
+        return String.join(",", csv(dto.getId()), csv(dto.getNumber()), csv(dto.getName()), csv(dto.getStatus()),
+                csv(dto.getGithubUrl()), csv(dto.getBranch()), csv(dto.getReviewVideoUrl()), csv(dto.getLearnerId()),
+                csv(dto.getLearnerName()), csv(dto.getCohortStartDate()), csv(dto.getReviewerId()),
+                csv(dto.getReviewerName()));
+    }
+
+    //RFC 4180: fields holding a comma, quote or line break are quoted, with quotes doubled. Text that a spreadsheet
+    //would run as a formula (learner-supplied URLs and branches) is prefixed with an apostrophe first
+    private static String csv(Object value) {
+        String text = Objects.toString(value, "");
+        if (value instanceof CharSequence && !text.isEmpty() && "=+-@\t\r".indexOf(text.charAt(0)) >= 0) {
+            text = "'" + text;
+        }
+        if (text.contains(",") || text.contains("\"") || text.contains("\n") || text.contains("\r")) {
+            return "\"" + text.replace("\"", "\"\"") + "\"";
+        }
+        return text;
+    }
+}
@@ -2,10 +2,16 @@ package com.hcc.services;
 
 import com.hcc.dtos.AssignmentCreateDto;
 import com.hcc.dtos.AssignmentDto;
+import com.hcc.dtos.AssignmentPageDto;
+import com.hcc.dtos.AssignmentStatusCountDto;
+import com.hcc.dtos.AssignmentSummaryDto;
 import com.hcc.entities.Assignment;
 import com.hcc.entities.User;
 import com.hcc.enums.AssignmentStatusEnum;
 import com.hcc.enums.AuthorityEnum;
+import com.hcc.events.AssignmentChangedEvent;
+import com.hcc.exceptions.AssignmentConflictException;
+import com.hcc.exceptions.BadRequestException;
 import com.hcc.exceptions.ResourceNotFoundException;
 import com.hcc.exceptions.UnauthorizedAccessException;
 import com.hcc.mappers.AssignmentMapper;
@@ -15,40 +21,65 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.ArrayList;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 
 @Service
 public class AssignmentService {
+    //statuses of the assignments a reviewer has claimed that are listed on the reviewer dashboard
+    static final List<AssignmentStatusEnum> CLAIMED_STATUSES =
+            List.of(AssignmentStatusEnum.RESUBMITTED, AssignmentStatusEnum.COMPLETED);
+
     @Autowired
     private AssignmentRepository assignmentRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
 
     private AssignmentMapper mapper = Mappers.getMapper(AssignmentMapper.class);
 
     private final Logger log = LogManager.getLogger(AssignmentService.class);
 
+    //shortest search fragment made of at least one trigram
+    private static final int MIN_SEARCH_LENGTH = 3;
+    private static final String SEARCH_CURSOR_PREFIX = "search:";
+
+    @Value("${assignments.page.max-limit:100}")
+    private int maxPageLimit = 100;
+
+    @Value("${assignments.bulk.max-size:1000}")
+    private int maxBulkSize = 1000;
+
     /**
      * GET ENDPOINT for Learners
-     * Retrieves the list of Assignments that are associated with a Learner.
+     * Retrieves the list of Assignments that are associated with a Learner, as summaries ordered by ID.
      * @param learner the user of where to retrieve the assignments from
-     * @return List of Assignment DTOs
+     * @return List of Assignment summaries
      */
-    public List<AssignmentDto> getAssignmentsByLearner(User learner) {
+    public List<AssignmentSummaryDto> getAssignmentsByLearner(User learner) {
         log.info("Retrieving assignments with user: {}", learner);
-        List<Assignment> assignments = assignmentRepository.findByUserId(learner.getId());
+        List<AssignmentSummaryDto> assignments = assignmentRepository.findLearnerDashboard(learner.getId());
 
         if (assignments.isEmpty()) {
             log.info("No assignments found for user");
         }
 
         log.info("Successfully retrieved list of assignments");
-        return mapper.toDtoList(assignments);
+        return assignments;
     }
 
     /**
@@ -59,18 +90,141 @@ public class AssignmentService {
      * If RESUBMITTED, any assignments that is associated with the Reviewer and has the status RESUBMITTED will be
      * returned.
      * If the list comes back empty, then ResponseEntity will return a 204 No Content.
-     * @return List of Assignment DTOs that have this status
+     * All three groups are read with a single query, ordered by assignment ID.
+     * @return List of Assignment summaries that have this status
      */
-    public List<AssignmentDto> getAssignmentsByReviewer(User reviewer) {
-        List<Assignment> assignments = new ArrayList<>();
-        assignments.addAll(assignmentRepository.findByStatus(AssignmentStatusEnum.SUBMITTED.getStatus()));
-        assignments.addAll(assignmentRepository.findByCodeReviewerIdAndStatus(reviewer.getId(),
-                AssignmentStatusEnum.RESUBMITTED.getStatus()));
-        assignments.addAll(assignmentRepository.findByCodeReviewerIdAndStatus(reviewer.getId(),
-                AssignmentStatusEnum.COMPLETED.getStatus()));
+    public List<AssignmentSummaryDto> getAssignmentsByReviewer(User reviewer) {
+        List<AssignmentSummaryDto> assignments = assignmentRepository.findReviewerDashboard(reviewer.getId(),
+                AssignmentStatusEnum.SUBMITTED, CLAIMED_STATUSES);
 
         log.info("Returning assignments...");
-        return mapper.toDtoList(assignments);
+        return assignments;
+    }
+
+    /**
+     * GET ENDPOINT for Learners, counts
+     * Counts the Assignments of a Learner in each status with one GROUP BY query. Results are kept in the query cache
+     * until this instance writes an Assignment or User, and for at most 30 seconds.
+     * @param learner the user of where to count the assignments from
+     * @return the number of Assignments per status name, in step order, including statuses with none; Assignments
+     * without a status are not counted
+     */
+    public Map<String, Long> getAssignmentCountsByLearner(User learner) {
+        return toCounts(assignmentRepository.countLearnerDashboard(learner.getId()));
+    }
+
+    /**
+     * GET ENDPOINT for Reviewers, counts
+     * Counts the Assignments on the reviewer dashboard (see getAssignmentsByReviewer) in each status with one
+     * GROUP BY query.
+     * @param reviewer the reviewer
+     * @return the number of Assignments per status name, in step order, including statuses with none
+     */
+    public Map<String, Long> getAssignmentCountsByReviewer(User reviewer) {
+        return toCounts(assignmentRepository.countReviewerDashboard(reviewer.getId(),
+                AssignmentStatusEnum.SUBMITTED, CLAIMED_STATUSES));
+    }
+
+    /**
+     * GET ENDPOINT for Learners, paginated
+     * Retrieves one page of the Assignments associated with a Learner, ordered by ID. Pages are read with an index
+     * range scan starting after the cursor instead of an OFFSET, so every page costs the same.
+     * @param learner the user of where to retrieve the assignments from
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of Assignments in the page
+     * @return the page of Assignment summaries and the cursor of the next page
+     */
+    public AssignmentPageDto getAssignmentPageByLearner(User learner, String after, int limit) {
+        checkLimit("limit", limit);
+        List<AssignmentSummaryDto> assignments = assignmentRepository.findLearnerPage(learner.getId(),
+                decodeCursor(after), PageRequest.of(0, limit + 1));
+        return toPage(assignments, limit);
+    }
+
+    /**
+     * GET ENDPOINT for Reviewers, paginated
+     * Retrieves one page of the reviewer dashboard (see getAssignmentsByReviewer), ordered by ID.
+     * @param reviewer the reviewer
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of Assignments in the page
+     * @return the page of Assignment summaries and the cursor of the next page
+     */
+    public AssignmentPageDto getAssignmentPageByReviewer(User reviewer, String after, int limit) {
+        checkLimit("limit", limit);
+        List<AssignmentSummaryDto> assignments = assignmentRepository.findReviewerDashboardPage(reviewer.getId(),
+                AssignmentStatusEnum.SUBMITTED, CLAIMED_STATUSES, decodeCursor(after), PageRequest.of(0, limit + 1));
+        return toPage(assignments, limit);
+    }
+
+    /**
+     * GET ENDPOINT for Reviewers, search
+     * Finds the Assignments whose GitHub URL or branch contains a fragment, ignoring case, best match first. The
+     * fragment is looked up in trigram indexes, so it must be at least 3 characters long.
+     * @param reviewer the reviewer searching
+     * @param query the fragment to look for
+     * @param after the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of Assignments in the page
+     * @return the page of Assignment summaries and the cursor of the next page
+     */
+    public AssignmentPageDto searchAssignments(User reviewer, String query, String after, int limit) {
+        if (reviewer.getAuthorities().stream()
+                .noneMatch(auth -> auth.getAuthority().equals(AuthorityEnum.ROLE_REVIEWER.name()))) {
+            log.error("User is not permitted to search Assignments");
+            throw new UnauthorizedAccessException("Only reviewers can search assignments");
+        }
+        checkLimit("limit", limit);
+        String fragment = query == null ? "" : query.trim();
+        if (fragment.length() < MIN_SEARCH_LENGTH) {
+            throw new BadRequestException("q must be at least " + MIN_SEARCH_LENGTH + " characters");
+        }
+
+        //search pages are ranked, not ordered by id, so their cursor is an offset
+        long offset = decodeSearchCursor(after);
+        List<Long> ids = assignmentRepository.searchIds(fragment, "%" + escapeLike(fragment) + "%", limit + 1,
+                offset);
+        String nextCursor = null;
+        if (ids.size() > limit) {
+            ids = ids.subList(0, limit);
+            nextCursor = encodeSearchCursor(offset + limit);
+        }
+        if (ids.isEmpty()) {
+            return new AssignmentPageDto(List.of(), null);
+        }
+
+        Map<Long, AssignmentSummaryDto> summaries = assignmentRepository.findSummariesByIds(ids).stream()
+                .collect(Collectors.toMap(AssignmentSummaryDto::getId, Function.identity()));
+        return new AssignmentPageDto(ids.stream().map(summaries::get).collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * POST ENDPOINT for Reviewers
+     * Claims the oldest SUBMITTED Assignments for a Reviewer, moving them to IN_REVIEW. Rows are locked with
+     * SKIP LOCKED, so concurrent Reviewers never claim the same Assignment nor wait on each other, and the pool
+     * drains in submission order.
+     * @param reviewer the Reviewer claiming work
+     * @param count the maximum number of Assignments to claim
+     * @return summaries of the claimed Assignments, empty if none were waiting
+     */
+    @Transactional
+    public List<AssignmentSummaryDto> claimNextAssignments(User reviewer, int count) {
+        if (reviewer.getAuthorities().stream()
+                .noneMatch(auth -> auth.getAuthority().equals(AuthorityEnum.ROLE_REVIEWER.name()))) {
+            log.error("User is not permitted to claim Assignments");
+            throw new UnauthorizedAccessException("Only reviewers can claim assignments");
+        }
+        checkLimit("count", count);
+
+        List<Long> ids = assignmentRepository.lockOldestSubmitted(count);
+        if (ids.isEmpty()) {
+            log.info("No submitted assignments to claim");
+            return List.of();
+        }
+        assignmentRepository.claim(ids, userRepository.getReferenceById(reviewer.getId()),
+                AssignmentStatusEnum.IN_REVIEW);
+        log.info("Reviewer {} claimed assignments {}", reviewer.getId(), ids);
+        List<AssignmentSummaryDto> claimed = assignmentRepository.findSummariesByIds(ids);
+        claimed.forEach(summary -> eventPublisher.publishEvent(new AssignmentChangedEvent(summary)));
+        return claimed;
     }
 
     /**
@@ -80,42 +234,54 @@ public class AssignmentService {
      * @return Assignment DTO
      */
     public AssignmentDto getAssignmentById(Long id) {
-        log.info("Retrieving assignment with id: {}", id);
-        Optional<Assignment> assignmentOptional = assignmentRepository.findById(id);
-        if (assignmentOptional.isEmpty()) {
-            log.error("Assignment with ID: {} doesn't exist", id);
-            throw new ResourceNotFoundException("Assignment with ID " + id + " does not exist");
-        } else {
-            log.info("Returning assignment...");
-            return mapper.toDto(assignmentOptional.get());
-        }
+        return mapper.toDto(findAssignment(id));
     }
 
 
     /**
      * PUT ENDPOINT
      * Updates an Assignment using the Assignment ID and providing an Assignment with updated features. The User is
-     * authenticated by Spring Security to determine what they can update. Saves the newly updated Assignment.
-     * @param updateDto the AssignmentDTO with updated fields
+     * authenticated by Spring Security to determine what they can update. Only the fields the User may edit are
+     * written, with a single conditional update; the Assignment is not read first.
+     * If the DTO carries a version, the update only succeeds while the Assignment is still at that version, so
+     * concurrent edits are detected instead of silently overwriting each other.
+     * @param updateDto the AssignmentDTO with updated fields, and the version they are based on
      * @param id the Assignment ID
      * @param user the User updating the Assignment
      * @return an Updated Assignment DTO
+     * @throws ResourceNotFoundException if the Assignment does not exist
+     * @throws AssignmentConflictException if the Assignment has been updated since the given version
      */
+    @Transactional
     public AssignmentDto updateAssignmentById(AssignmentDto updateDto, Long id, User user) {
-        Assignment assignment = mapper.toAssignment(getAssignmentById(id));
+        Assignment changes = new Assignment();
 
         if (user.getAuthorities().stream().anyMatch(auth -> auth.getAuthority().equals("ROLE_REVIEWER"))) {
             //CLAIM
-            mapper.updateReviewerFields(updateDto, assignment);
+            mapper.updateReviewerFields(updateDto, changes);
         }
 
         if (user.getAuthorities().stream().anyMatch(auth -> auth.getAuthority().equals("ROLE_LEARNER"))) {
-            mapper.updateLearnerFields(updateDto, assignment);
+            mapper.updateLearnerFields(updateDto, changes);
         }
 
-        log.info("Successfully updated assignment with updated fields");
-        assignmentRepository.save(assignment);
-        log.info("Saved assignment");
+        if (changes.getCodeReviewer() != null && changes.getCodeReviewer().getId() == null) {
+            throw new BadRequestException("codeReviewer must have an id");
+        }
+
+        int updated = assignmentRepository.updateNonNullFields(id, updateDto.getVersion(), changes);
+        if (updated == 0) {
+            if (!assignmentRepository.existsById(id)) {
+                log.error("Assignment with ID: {} doesn't exist", id);
+                throw new ResourceNotFoundException("Assignment with ID " + id + " does not exist");
+            }
+            log.info("Assignment with ID: {} is no longer at version {}", id, updateDto.getVersion());
+            throw new AssignmentConflictException("Assignment with ID " + id + " has been modified since version " +
+                    updateDto.getVersion());
+        }
+        log.info("Updated assignment with ID: {}", id);
+        Assignment assignment = findAssignment(id);
+        eventPublisher.publishEvent(new AssignmentChangedEvent(mapper.toSummary(assignment)));
         return mapper.toDto(assignment);
     }
 
@@ -125,20 +291,146 @@ public class AssignmentService {
      * @param createDto the new Assignment with limited fields
      * @return The created Assignment DTO
      */
+    @Transactional
     public AssignmentDto createAssignment(AssignmentCreateDto createDto, User user) {
+        checkLearner(user);
+        log.info("Assigning proper fields to created Assignment");
+        Assignment assignment = newAssignment(createDto, user);
+
+        assignmentRepository.save(assignment);
+        eventPublisher.publishEvent(new AssignmentChangedEvent(mapper.toSummary(assignment)));
+
+        return mapper.toDto(assignment);
+    }
+
+    /**
+     * POST ENDPOINT, bulk
+     * Posts many new Assignments for a Learner in one transaction. Ids come from a pooled sequence, so the inserts
+     * are flushed in JDBC batches instead of one round trip per row.
+     * @param createDtos the new Assignments with limited fields
+     * @param user the Learner creating the Assignments
+     * @return The created Assignment DTOs, in the order they were given
+     */
+    @Transactional
+    public List<AssignmentDto> createAssignments(List<AssignmentCreateDto> createDtos, User user) {
+        checkLearner(user);
+        if (createDtos == null || createDtos.isEmpty() || createDtos.size() > maxBulkSize) {
+            throw new BadRequestException("Between 1 and " + maxBulkSize + " assignments can be created at once");
+        }
+        List<Assignment> assignments = createDtos.stream()
+                .map(createDto -> newAssignment(createDto, user))
+                .collect(Collectors.toList());
+
+        assignmentRepository.saveAll(assignments);
+        log.info("Created {} assignments for user {}", assignments.size(), user.getId());
+        assignments.forEach(assignment ->
+                eventPublisher.publishEvent(new AssignmentChangedEvent(mapper.toSummary(assignment))));
+
+        return assignments.stream().map(mapper::toDto).collect(Collectors.toList());
+    }
+
+    private void checkLearner(User user) {
         boolean isLearner = user.getAuthorities().stream()
                 .anyMatch(auth -> auth.getAuthority().equals(AuthorityEnum.ROLE_LEARNER.name()));
         if (!isLearner) {
             log.error("User is not permitted to create Assignments");
             throw new UnauthorizedAccessException("Only learners can create assignments");
         }
-        log.info("Assigning proper fields to created Assignment");
+    }
+
+    private Assignment newAssignment(AssignmentCreateDto createDto, User user) {
         Assignment assignment = mapper.toAssignment(createDto);
         assignment.setUser(user);
-        assignment.setStatus(AssignmentStatusEnum.PENDING_SUBMISSION.getStatus());
+        assignment.setStatus(AssignmentStatusEnum.PENDING_SUBMISSION);
+        return assignment;
+    }
 
-        assignmentRepository.save(assignment);
+    private Assignment findAssignment(Long id) {
+        log.info("Retrieving assignment with id: {}", id);
+        Optional<Assignment> assignmentOptional = assignmentRepository.findById(id);
+        if (assignmentOptional.isEmpty()) {
+            log.error("Assignment with ID: {} doesn't exist", id);
+            throw new ResourceNotFoundException("Assignment with ID " + id + " does not exist");
+        }
+        log.info("Returning assignment...");
+        return assignmentOptional.get();
+    }
 
-        return mapper.toDto(assignment);
+    /**
+     * Builds a page from a query that fetched one row more than the limit; that extra row only tells whether there
+     * is a next page.
+     */
+    private AssignmentPageDto toPage(List<AssignmentSummaryDto> assignments, int limit) {
+        if (assignments.size() <= limit) {
+            return new AssignmentPageDto(assignments, null);
+        }
+        List<AssignmentSummaryDto> page = assignments.subList(0, limit);
+        return new AssignmentPageDto(page, encodeCursor(page.get(limit - 1).getId()));
+    }
+
+    private static Map<String, Long> toCounts(List<AssignmentStatusCountDto> statusCounts) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (AssignmentStatusEnum status : AssignmentStatusEnum.values()) {
+            counts.put(status.name(), 0L);
+        }
+        for (AssignmentStatusCountDto statusCount : statusCounts) {
+            //legacy rows whose status could not be mapped (V2) are on no dashboard column, and a null key could not
+            //be serialized
+            if (statusCount.getStatus() != null) {
+                counts.put(statusCount.getStatus(), statusCount.getCount());
+            }
+        }
+        return counts;
+    }
+
+    private void checkLimit(String name, int limit) {
+        if (limit < 1 || limit > maxPageLimit) {
+            throw new BadRequestException(name + " must be between 1 and " + maxPageLimit);
+        }
+    }
+
+    //escapes the LIKE wildcards and the escape character itself, so they match literally
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    private static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    //search cursors are tagged, so a keyset cursor from another page is not taken for an offset
+    private static String encodeSearchCursor(long offset) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((SEARCH_CURSOR_PREFIX + offset).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long decodeSearchCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            String text = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!text.startsWith(SEARCH_CURSOR_PREFIX)) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            long offset = Long.parseLong(text.substring(SEARCH_CURSOR_PREFIX.length()));
+            if (offset < 0) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return offset;
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return Long.valueOf(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
     }
 }
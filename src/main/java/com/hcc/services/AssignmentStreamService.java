@@ -0,0 +1,298 @@
+package com.hcc.services;
+
+import com.hcc.dtos.AssignmentChangeDto;
+import com.hcc.dtos.AssignmentSummaryDto;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.events.AssignmentChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes Assignment changes to the dashboards as Server-Sent Events. Changes are published once their transaction
+ * has committed and only go to the users whose dashboard they affect, following the rules of the GET endpoints.
+ * Every subscriber has a bounded buffer drained by a shared pool, one write at a time, so a client that stops
+ * reading holds at most one thread and the pool grows for the others. A subscriber whose buffer is full, whose write
+ * takes longer than the write timeout, or that cannot get a thread is disconnected rather than slowing down the
+ * others, and reloads its dashboard when it reconnects. Idle streams get a heartbeat comment at a fixed rate, so
+ * proxies keep them open and clients can tell a quiet stream from a dead one.
+ */
+@Service
+public class AssignmentStreamService {
+    private final Logger log = LogManager.getLogger(AssignmentStreamService.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${assignments.stream.buffer-size:256}")
+    private int bufferSize;
+
+    @Value("${assignments.stream.timeout-ms:1800000}")
+    private long timeoutMillis;
+
+    @Value("${assignments.stream.dispatch-threads:32}")
+    private int dispatchThreads;
+
+    @Value("${assignments.stream.dispatch-queue-size:1024}")
+    private int dispatchQueueSize;
+
+    @Value("${assignments.stream.write-timeout-ms:10000}")
+    private long writeTimeoutMillis;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor dispatcher;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        //as many core threads as the maximum, timing out when idle, so the pool grows before it queues: a task waits
+        //only when every thread is busy, and a full queue disconnects the subscriber instead of piling up
+        dispatcher = new ThreadPoolExecutor(dispatchThreads, dispatchThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(dispatchQueueSize), runnable -> {
+            Thread thread = new Thread(runnable, "assignment-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        dispatcher.allowCoreThreadTimeOut(true);
+        meterRegistry.gauge("assignments.stream.subscribers", subscribers, Set::size);
+        dropped = meterRegistry.counter("assignments.stream.dropped");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    /**
+     * Opens a stream of the changes to the dashboard of a user.
+     * @param user the subscribing User
+     * @return the emitter the changes are sent to
+     */
+    public SseEmitter subscribe(User user) {
+        return subscribe(user, new SseEmitter(timeoutMillis));
+    }
+
+    SseEmitter subscribe(User user, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(user, emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        log.info("User {} subscribed to assignment changes", user.getId());
+        return emitter;
+    }
+
+    /**
+     * Sends a heartbeat comment to every subscriber that has nothing being written already. The writes run on the
+     * dispatch pool, so a stalled client never holds up the scheduler; a subscriber that can no longer be written to
+     * is dropped.
+     */
+    @Scheduled(initialDelayString = "${assignments.stream.heartbeat-ms:15000}",
+            fixedRateString = "${assignments.stream.heartbeat-ms:15000}")
+    public void sendHeartbeats() {
+        subscribers.forEach(Subscriber::heartbeat);
+    }
+
+    /**
+     * Drops the subscribers whose current write has been blocked for longer than the write timeout, i.e. whose client
+     * has stopped reading. The blocked write keeps its thread until the connection times out, but the subscriber gets
+     * nothing more.
+     */
+    @Scheduled(initialDelayString = "${assignments.stream.write-timeout-ms:10000}",
+            fixedDelayString = "${assignments.stream.write-timeout-ms:10000}")
+    public void dropStalledSubscribers() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long startedAt = subscriber.writeStartedAt;
+            if (startedAt != 0 && now - startedAt > TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis)) {
+                subscriber.drop("write blocked for over " + writeTimeoutMillis + " ms");
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAssignmentChanged(AssignmentChangedEvent event) {
+        AssignmentSummaryDto assignment = event.getAssignment();
+        for (Subscriber subscriber : subscribers) {
+            AssignmentChangeDto change = changeFor(subscriber, assignment);
+            if (change != null) {
+                subscriber.offer(change);
+            }
+        }
+    }
+
+    /**
+     * Works out what a subscriber sees of a change: an upsert if the Assignment is on their dashboard, a remove if it
+     * may just have left it, or nothing.
+     */
+    static AssignmentChangeDto changeFor(Subscriber subscriber, AssignmentSummaryDto assignment) {
+        if (subscriber.learner && subscriber.userId.equals(assignment.getLearnerId())) {
+            return AssignmentChangeDto.upsert(assignment);
+        }
+        if (subscriber.reviewer) {
+            //same rows as AssignmentRepository.findReviewerDashboard
+            boolean submitted = AssignmentStatusEnum.SUBMITTED.name().equals(assignment.getStatus());
+            boolean claimed = subscriber.userId.equals(assignment.getReviewerId())
+                    && AssignmentService.CLAIMED_STATUSES.stream()
+                    .anyMatch(status -> status.name().equals(assignment.getStatus()));
+            if (submitted || claimed) {
+                return AssignmentChangeDto.upsert(assignment);
+            }
+            //pending assignments have never been on a reviewer dashboard
+            if (!AssignmentStatusEnum.PENDING_SUBMISSION.name().equals(assignment.getStatus())) {
+                return AssignmentChangeDto.remove(assignment.getId());
+            }
+        }
+        return null;
+    }
+
+    int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * A connected dashboard: the user's visibility and a bounded buffer of changes waiting to be sent.
+     */
+    class Subscriber {
+        private final Long userId;
+        private final boolean learner;
+        private final boolean reviewer;
+        private final SseEmitter emitter;
+        private final Queue<AssignmentChangeDto> buffer;
+        //true while a dispatch task is scheduled for this subscriber, so its writes run in order, one thread at a time
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private volatile boolean closed;
+        //System.nanoTime() when the write in progress started, or 0
+        private volatile long writeStartedAt;
+
+        Subscriber(User user, SseEmitter emitter, int bufferSize) {
+            this.userId = user.getId();
+            this.learner = user.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals(AuthorityEnum.ROLE_LEARNER.name()));
+            this.reviewer = user.getAuthorities().stream()
+                    .anyMatch(auth -> auth.getAuthority().equals(AuthorityEnum.ROLE_REVIEWER.name()));
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(AssignmentChangeDto change) {
+            if (closed) {
+                return;
+            }
+            if (!buffer.offer(change)) {
+                //slow consumer: drop it, it resynchronizes with a full GET when it reconnects
+                drop("buffer full");
+                return;
+            }
+            schedule();
+        }
+
+        //a subscriber with a task pending gets data or is stalled either way, so it is skipped
+        void heartbeat() {
+            if (!closed && scheduled.compareAndSet(false, true)) {
+                heartbeatDue = true;
+                execute();
+            }
+        }
+
+        /**
+         * Disconnects the subscriber. The emitter is completed by the dispatch task, after any write in progress, as
+         * completing it here would wait for that write.
+         */
+        void drop(String reason) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            subscribers.remove(this);
+            log.warn("Dropping assignment stream subscriber {}: {}", userId, reason);
+            dropped.increment();
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                execute();
+            }
+        }
+
+        private void execute() {
+            try {
+                dispatcher.execute(this::run);
+            } catch (RejectedExecutionException e) {
+                //every thread is busy and the queue is full; nothing is being written to this subscriber
+                scheduled.set(false);
+                drop("dispatcher saturated");
+                emitter.complete();
+            }
+        }
+
+        private void run() {
+            try {
+                if (heartbeatDue) {
+                    heartbeatDue = false;
+                    write(SseEmitter.event().comment("heartbeat"));
+                }
+                AssignmentChangeDto change;
+                while (!closed && (change = buffer.poll()) != null) {
+                    write(SseEmitter.event()
+                            .name("assignment")
+                            .id(String.valueOf(change.getId()))
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                //the client went away or the emitter was completed
+                closed = true;
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                scheduled.set(false);
+            }
+            if (closed) {
+                emitter.complete();
+                return;
+            }
+            //a change offered after the last poll but before the flag was cleared would otherwise wait for the next one
+            if (!buffer.isEmpty()) {
+                schedule();
+            }
+        }
+
+        private void write(SseEmitter.SseEventBuilder event) throws IOException {
+            writeStartedAt = System.nanoTime();
+            try {
+                emitter.send(event);
+            } finally {
+                writeStartedAt = 0;
+            }
+        }
+    }
+}
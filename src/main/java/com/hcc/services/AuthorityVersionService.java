@@ -0,0 +1,62 @@
+package com.hcc.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hcc.utils.JwtUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * Keeps the current authorities version of recently seen users. Tokens are authenticated from their claims only
+ * while their signed version matches the cached one, so a role change takes effect for every outstanding token
+ * within the configured staleness window, at the cost of at most one user lookup per user per window.
+ */
+@Service
+public class AuthorityVersionService {
+    @Autowired
+    private UserDetailServiceImpl userDetailService;
+
+    @Value("${jwt.claims-authentication.max-staleness-seconds:300}")
+    private long maxStalenessSeconds;
+
+    @Value("${jwt.claims-authentication.maximum-size:10000}")
+    private long maximumSize;
+
+    private Cache<String, String> versions;
+
+    @PostConstruct
+    public void init() {
+        versions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(maxStalenessSeconds))
+                .build();
+    }
+
+    /**
+     * Retrieves the authorities version of a user, loading it at most once per staleness window.
+     * @param username the username
+     * @return the current authorities version, or null if the user does not exist
+     */
+    public String getCurrentVersion(String username) {
+        return versions.get(username, name -> {
+            try {
+                return JwtUtil.getAuthoritiesVersion(userDetailService.loadUserByUsername(name).getAuthorities());
+            } catch (UsernameNotFoundException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * Drops the cached version of a user so a role change takes effect on the next request.
+     * @param username the username to evict
+     */
+    public void evict(String username) {
+        versions.invalidate(username);
+    }
+}
@@ -2,10 +2,9 @@ package com.hcc.services;
 
 import com.hcc.dtos.AuthCredentialRequest;
 import com.hcc.dtos.AuthCredentialResponse;
-import com.hcc.entities.Authority;
 import com.hcc.entities.User;
-import com.hcc.repositories.UserRepository;
 import com.hcc.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import org.apache.logging.log4j.LogManager;
@@ -22,7 +21,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 @Service
@@ -34,27 +32,44 @@ public class LoginService {
     @Autowired
     private JwtUtil jwtUtil;
     @Autowired
-    private UserRepository userRepository;
+    private PasswordVerificationExecutor passwordVerificationExecutor;
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
 
     private final Logger log = LogManager.getLogger(LoginService.class);
 
     /**
      * Login endpoint. This will take the username and password from AuthCredentialRequest and authenticate it.
      * If the username and/or password is invalid, it will throw an AuthenticationException.
+     * The password is checked on the PasswordVerificationExecutor, which turns logins away with a
+     * LoginOverloadedException when it is saturated. A successful login also starts a refresh token family.
      * @param request the username and password
      * @return an OK from ResponseEntity if validated
      */
     public AuthCredentialResponse login(AuthCredentialRequest request) {
         String token = "";
+        //a username just found not to exist fails without a lookup or a hash
+        if (userDetailServiceImp.isUnknownUsername(request.getUsername())) {
+            log.warn("Login failed for unknown user {}", request.getUsername());
+            return new AuthCredentialResponse(token);
+        }
         try {
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
-            );
+            Authentication authentication = passwordVerificationExecutor.verify(() ->
+                    authenticationManager.authenticate(
+                            new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())
+                    ));
 
-            //Generate JWT token
-            token = jwtUtil.generateToken((UserDetails) authentication.getPrincipal());
+            //Generate JWT token, and the refresh token that renews it without the password
+            UserDetails userDetails = (UserDetails) authentication.getPrincipal();
+            token = jwtUtil.generateToken(userDetails);
+            if (userDetails instanceof User) {
+                return new AuthCredentialResponse(token, refreshTokenService.issue((User) userDetails));
+            }
         } catch (AuthenticationException e) {
-            log.error("Login error: ", e);
+            //expected on every bad password, so no stack trace
+            log.warn("Login failed for {}: {}", request.getUsername(), e.getMessage());
         }
         return new AuthCredentialResponse(token);
     }
@@ -69,20 +84,23 @@ public class LoginService {
     public List<String> validateToken(String token) {
         boolean isValid = false;
         try {
-            String username = jwtUtil.getUsernameFromToken(token);
-            UserDetails userDetails = userDetailServiceImp.loadUserByUsername(username);
-            isValid = jwtUtil.validateToken(token, userDetails);
+            Claims claims = jwtUtil.parseToken(token);
+            if (tokenRevocationService.isRevoked(claims.getId())) {
+                log.warn("Revoked token presented for {}", claims.getSubject());
+                return new ArrayList<>();
+            }
+            UserDetails userDetails = userDetailServiceImp.loadUserByUsername(claims.getSubject());
+            isValid = jwtUtil.validateToken(claims, userDetails);
 
             if (!isValid) {
                 log.error("Invalid token");
             } else {
-                User user = userRepository.findByUsername(username).orElseThrow();
-                return user.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
+                return userDetails.getAuthorities().stream().map(GrantedAuthority::getAuthority).collect(Collectors.toList());
             }
 
         } catch (ExpiredJwtException e) {
             log.error("Token has expired: ", e);
-        } catch (UsernameNotFoundException | NoSuchElementException e) {
+        } catch (UsernameNotFoundException e) {
             log.error("No username found: ", e);
         } catch (JwtException | IllegalArgumentException e) {
             log.error("Token validation error: ", e);
@@ -90,4 +108,24 @@ public class LoginService {
 
         return new ArrayList<>();
     }
+
+    /**
+     * Logout endpoint. Revokes the access token until it expires and ends the refresh token family, so neither can
+     * be used again. Tokens that are missing, invalid or already expired are skipped.
+     * @param token the access token, with or without the "Bearer " prefix
+     * @param refreshToken the refresh token from the cookie
+     */
+    public void logout(String token, String refreshToken) {
+        if (token != null && !token.isEmpty()) {
+            try {
+                Claims claims = jwtUtil.parseToken(token.startsWith("Bearer ") ? token.substring(7).trim() : token);
+                tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant());
+            } catch (JwtException | IllegalArgumentException e) {
+                log.warn("Logout with an invalid access token: {}", e.getMessage());
+            }
+        }
+        if (refreshToken != null && !refreshToken.isEmpty()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
 }
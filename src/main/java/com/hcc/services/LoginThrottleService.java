@@ -0,0 +1,83 @@
+package com.hcc.services;
+
+import com.hcc.exceptions.LoginThrottledException;
+import com.hcc.utils.TokenBuckets;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits login attempts per client address and per username with token buckets, so a brute-force client is turned
+ * away before any user lookup or password hashing. Every attempt takes a token, successful or not. Each address and
+ * each username has a bucket of its own, so attempts on many usernames never use up the attempts of another user.
+ */
+@Service
+public class LoginThrottleService {
+    private final Logger log = LogManager.getLogger(LoginThrottleService.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${login.throttle.maximum-keys:100000}")
+    private long maximumKeys = 100000;
+
+    @Value("${login.throttle.address.capacity:20}")
+    private int addressCapacity = 20;
+
+    @Value("${login.throttle.address.refill-ms:1000}")
+    private long addressRefillMillis = 1000;
+
+    @Value("${login.throttle.username.capacity:5}")
+    private int usernameCapacity = 5;
+
+    @Value("${login.throttle.username.refill-ms:12000}")
+    private long usernameRefillMillis = 12000;
+
+    private TokenBuckets addressBuckets;
+    private TokenBuckets usernameBuckets;
+    private Counter addressThrottled;
+    private Counter usernameThrottled;
+
+    @PostConstruct
+    public void init() {
+        addressBuckets = new TokenBuckets(maximumKeys, addressCapacity,
+                TimeUnit.MILLISECONDS.toNanos(addressRefillMillis), System::nanoTime);
+        usernameBuckets = new TokenBuckets(maximumKeys, usernameCapacity,
+                TimeUnit.MILLISECONDS.toNanos(usernameRefillMillis), System::nanoTime);
+        addressThrottled = meterRegistry.counter("login.throttled", "key", "address");
+        usernameThrottled = meterRegistry.counter("login.throttled", "key", "username");
+    }
+
+    /**
+     * Takes a login attempt from the buckets of the client address and of the username.
+     * @param username the username logging in
+     * @param clientAddress the address of the client
+     * @throws LoginThrottledException if either bucket is empty
+     */
+    public void checkLogin(String username, String clientAddress) {
+        //the address goes first, so a flood from one client does not also drain the buckets of the users it targets
+        long wait = addressBuckets.tryAcquire(clientAddress);
+        if (wait > 0) {
+            addressThrottled.increment();
+            throw throttled(wait);
+        }
+        wait = usernameBuckets.tryAcquire(String.valueOf(username));
+        if (wait > 0) {
+            usernameThrottled.increment();
+            log.warn("Login attempts for {} throttled", username);
+            throw throttled(wait);
+        }
+    }
+
+    private static LoginThrottledException throttled(long waitNanos) {
+        return new LoginThrottledException("Too many login attempts, please retry later",
+                Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+    }
+}
@@ -0,0 +1,118 @@
+package com.hcc.services;
+
+import com.hcc.exceptions.LoginOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs password verification, i.e. BCrypt, on a small dedicated pool instead of the request threads. The pool is
+ * sized to a share of the cores and has a bounded queue; when the queue is full, or a verification waits too long,
+ * the login is turned away with a LoginOverloadedException (503) right away, so a burst of logins cannot take the
+ * threads and cores the rest of the API needs.
+ */
+@Service
+public class PasswordVerificationExecutor {
+    private final Logger log = LogManager.getLogger(PasswordVerificationExecutor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    //share of the cores verification may use; the pool has at least one thread
+    @Value("${login.verification.core-share:0.5}")
+    private double coreShare;
+
+    @Value("${login.verification.queue-capacity:64}")
+    private int queueCapacity;
+
+    //longest a login waits for its verification, queueing included
+    @Value("${login.verification.timeout-ms:2000}")
+    private long timeoutMillis;
+
+    private ThreadPoolExecutor executor;
+    private Timer verificationTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        int threads = Math.max(1, (int) (Runtime.getRuntime().availableProcessors() * coreShare));
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, queue, runnable -> {
+            Thread thread = new Thread(runnable, "password-verification-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+        meterRegistry.gauge("login.verification.queue.size", queue, BlockingQueue::size);
+        meterRegistry.gauge("login.verification.active", executor, ThreadPoolExecutor::getActiveCount);
+        verificationTimer = Timer.builder("login.verification")
+                .description("Time spent verifying a password, queueing excluded")
+                .publishPercentiles(0.5, 0.9, 0.99)
+                .register(meterRegistry);
+        rejected = meterRegistry.counter("login.verification.rejected");
+        log.info("Verifying passwords on {} threads with a queue of {}", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a verification on the pool and waits for its result.
+     * @param verification the verification, e.g. AuthenticationManager.authenticate
+     * @return the result of the verification
+     * @throws LoginOverloadedException if the queue is full or the verification did not finish in time
+     */
+    public <T> T verify(Callable<T> verification) {
+        Future<T> result;
+        try {
+            result = executor.submit(() -> verificationTimer.recordCallable(verification));
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password verification queue is full");
+            throw new LoginOverloadedException("Too many logins in progress, please retry shortly");
+        }
+
+        try {
+            return result.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            //a queued verification is dropped, a running one finishes but its result is ignored
+            result.cancel(false);
+            rejected.increment();
+            log.warn("Password verification timed out");
+            throw new LoginOverloadedException("Too many logins in progress, please retry shortly");
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new LoginOverloadedException("Login was interrupted");
+        } catch (ExecutionException e) {
+            //rethrow what the verification threw, e.g. an AuthenticationException
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw new IllegalStateException("Password verification failed", e.getCause());
+        }
+    }
+}
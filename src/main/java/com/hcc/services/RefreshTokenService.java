@@ -0,0 +1,147 @@
+package com.hcc.services;
+
+import com.hcc.dtos.AuthCredentialResponse;
+import com.hcc.entities.RefreshToken;
+import com.hcc.entities.User;
+import com.hcc.exceptions.UnauthorizedAccessException;
+import com.hcc.repositories.RefreshTokenRepository;
+import com.hcc.repositories.UserRepository;
+import com.hcc.utils.JwtUtil;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Issues and rotates refresh tokens. A refresh token is 256 random bits handed to the client once and stored as its
+ * SHA-256 digest, so renewing an access token costs one indexed lookup and an HMAC signature, never a password hash.
+ * Each use replaces the token with a new one of the same family; presenting a replaced token again deletes the
+ * family, logging out whoever holds it. Within a few seconds of the replacement a second use is only refused, since it
+ * is far more likely to be the same client racing itself (two tabs, a retried request) than a stolen copy.
+ */
+@Service
+public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
+    private final Logger log = LogManager.getLogger(RefreshTokenService.class);
+    private final SecureRandom random = new SecureRandom();
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Value("${auth.refresh-token.validity-days:14}")
+    private long validityDays = 14;
+
+    @Value("${auth.refresh-token.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds = 10;
+
+    /**
+     * Issues the first refresh token of a new family, after a login.
+     * @param user the User who logged in
+     * @return the refresh token to hand to the client
+     */
+    @Transactional
+    public String issue(User user) {
+        return save(UUID.randomUUID().toString(), userRepository.getReferenceById(user.getId()));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access token and a new refresh token.
+     * @param refreshToken the refresh token presented by the client
+     * @return the new access token and refresh token
+     * @throws UnauthorizedAccessException if the token is unknown, expired or already used; a token used again
+     * after the grace period also ends its family
+     */
+    @Transactional(noRollbackFor = UnauthorizedAccessException.class)
+    public AuthCredentialResponse rotate(String refreshToken) {
+        RefreshToken stored = refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                .orElseThrow(() -> new UnauthorizedAccessException("Invalid refresh token"));
+        Instant now = Instant.now();
+        if (stored.getExpiresAt().isBefore(now)) {
+            throw new UnauthorizedAccessException("Refresh token has expired");
+        }
+        if (stored.getReplacedAt() != null) {
+            if (stored.getReplacedAt().isAfter(now.minusSeconds(reuseGraceSeconds))) {
+                log.info("Refresh token of user {} used again just after rotation", stored.getUser().getId());
+                throw new UnauthorizedAccessException("Refresh token has already been used");
+            }
+            //only a copy of the token can be presented this late; end the session for both holders
+            refreshTokenRepository.deleteFamily(stored.getFamilyId());
+            log.warn("Refresh token reused for user {}, family revoked", stored.getUser().getId());
+            throw new UnauthorizedAccessException("Refresh token has already been used");
+        }
+        if (refreshTokenRepository.markReplaced(stored.getId(), now) == 0) {
+            //a concurrent request rotated it after it was read, which is within the grace period by definition
+            log.info("Refresh token of user {} rotated concurrently", stored.getUser().getId());
+            throw new UnauthorizedAccessException("Refresh token has already been used");
+        }
+
+        User user = stored.getUser();
+        return new AuthCredentialResponse(jwtUtil.generateToken(user), save(stored.getFamilyId(), user));
+    }
+
+    /**
+     * Ends the family of a refresh token, e.g. on logout. Unknown tokens are ignored.
+     * @param refreshToken the refresh token presented by the client
+     */
+    @Transactional
+    public void revoke(String refreshToken) {
+        refreshTokenRepository.findByTokenHash(digest(refreshToken))
+                .ifPresent(stored -> refreshTokenRepository.deleteFamily(stored.getFamilyId()));
+    }
+
+    /**
+     * Deletes expired refresh tokens, replaced ones included. Replaced tokens are kept until then so their reuse is
+     * detected.
+     */
+    @Scheduled(initialDelayString = "${auth.refresh-token.purge-interval-ms:3600000}",
+            fixedDelayString = "${auth.refresh-token.purge-interval-ms:3600000}")
+    @Transactional
+    public void purgeExpired() {
+        int purged = refreshTokenRepository.deleteExpired(Instant.now());
+        if (purged > 0) {
+            log.info("Purged {} expired refresh tokens", purged);
+        }
+    }
+
+    public Duration getValidity() {
+        return Duration.ofDays(validityDays);
+    }
+
+    private String save(String familyId, User user) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokenRepository.save(new RefreshToken(digest(token), familyId, user, Instant.now().plus(getValidity())));
+        return token;
+    }
+
+    static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.hcc.services;
+
+import com.hcc.repositories.RevokedTokenRepository;
+import com.hcc.utils.BloomFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Revoked access tokens, checked by JwtFilter on every request without any I/O. Revocations are written to the
+ * revoked_tokens table and kept in memory as a map of jti to expiration, fronted by a Bloom filter so the usual
+ * answer, not revoked, rarely touches the map. Each instance polls the table for revocations made elsewhere, and
+ * drops tokens once they have expired, rebuilding the filter without them.
+ */
+@Service
+public class TokenRevocationService {
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final Logger log = LogManager.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.revocation.expected-tokens:100000}")
+    private int expectedTokens = 100000;
+
+    //revocations committed by other instances are read again for this long, in case they committed late
+    @Value("${auth.revocation.sync-overlap-seconds:60}")
+    private long syncOverlapSeconds = 60;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter filter;
+    //number of tokens the current filter was sized for
+    private int filterCapacity;
+    private Instant lastSync;
+
+    @PostConstruct
+    public void init() {
+        rebuild();
+        meterRegistry.gauge("auth.revoked.tokens", revoked, Map::size);
+        sync();
+    }
+
+    /**
+     * Tells whether a token has been revoked. Does no I/O.
+     * @param jti the id of the token; tokens without one cannot be revoked
+     * @return true if the token was revoked
+     */
+    public boolean isRevoked(String jti) {
+        return jti != null && filter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * Revokes a token until it expires. Takes effect on this instance at once, and on the others at their next sync
+     * after the caller's transaction commits. The token is refused here before the row is committed; if the
+     * transaction rolls back, it stays refused here until it expires, which errs on the safe side.
+     * @param jti the id of the token
+     * @param expiresAt the expiration of the token
+     */
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        revokedTokenRepository.insert(jti, expiresAt);
+        add(Map.of(jti, expiresAt));
+        log.info("Revoked token {} until {}", jti, expiresAt);
+    }
+
+    /**
+     * Loads the revocations recorded since the last sync, including those of other instances.
+     */
+    @Scheduled(initialDelayString = "${auth.revocation.sync-interval-ms:5000}",
+            fixedDelayString = "${auth.revocation.sync-interval-ms:5000}")
+    public void sync() {
+        Instant started = Instant.now();
+        Instant after = lastSync == null ? null : lastSync.minus(Duration.ofSeconds(syncOverlapSeconds));
+        add(revokedTokenRepository.findUnexpired(after));
+        lastSync = started;
+    }
+
+    /**
+     * Forgets the tokens that have expired, in memory and in the table, and rebuilds the filter without them.
+     */
+    @Scheduled(initialDelayString = "${auth.revocation.prune-interval-ms:60000}",
+            fixedDelayString = "${auth.revocation.prune-interval-ms:60000}")
+    public void prune() {
+        int deleted = revokedTokenRepository.deleteExpired();
+        Instant now = Instant.now();
+        if (revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now)) || deleted > 0) {
+            rebuild();
+            log.info("Pruned expired revoked tokens, {} left", revoked.size());
+        }
+    }
+
+    //adding and rebuilding are serialized so a rebuild cannot miss a token; isRevoked never locks
+    private synchronized void add(Map<String, Instant> tokens) {
+        revoked.putAll(tokens);
+        if (revoked.size() > filterCapacity) {
+            rebuild();
+            return;
+        }
+        tokens.keySet().forEach(filter::put);
+    }
+
+    private synchronized void rebuild() {
+        filterCapacity = Math.max(expectedTokens, 2 * revoked.size());
+        BloomFilter rebuilt = new BloomFilter(filterCapacity, FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        filter = rebuilt;
+    }
+}
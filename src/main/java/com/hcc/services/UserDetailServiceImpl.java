@@ -1,23 +1,173 @@
 package com.hcc.services;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.hcc.entities.Authority;
 import com.hcc.entities.User;
 import com.hcc.repositories.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
 
+/**
+ * Loads users for authentication through a bounded, size- and TTL-evicting cache of immutable user snapshots.
+ * Entries are evicted by {@link com.hcc.listeners.UserCacheEvictionListener} whenever a User or Authority is saved.
+ * Hit, miss and eviction counters are published as the "users" cache metrics.
+ * Usernames that were not found are remembered for a short while in a second cache, so repeated logins with an
+ * unknown username do not reach the database.
+ * Also stores the new hash when a login upgrades a password hashed with an outdated BCrypt strength.
+ */
 @Service
-public class UserDetailServiceImpl implements UserDetailsService {
+public class UserDetailServiceImpl implements UserDetailsService, UserDetailsPasswordService {
+    private final Logger log = LogManager.getLogger(UserDetailServiceImpl.class);
+
     @Autowired
     UserRepository userRepo;
 
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Value("${users.cache.maximum-size:10000}")
+    private long maximumSize;
+
+    @Value("${users.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${users.unknown-cache.maximum-size:100000}")
+    private long unknownMaximumSize = 100000;
+
+    @Value("${users.unknown-cache.ttl-seconds:30}")
+    private long unknownTtlSeconds = 30;
+
+    private Cache<String, UserSnapshot> users;
+    private Cache<String, Boolean> unknownUsernames;
+
+    @PostConstruct
+    public void init() {
+        users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, users, "users");
+        unknownUsernames = Caffeine.newBuilder()
+                .maximumSize(unknownMaximumSize)
+                .expireAfterWrite(Duration.ofSeconds(unknownTtlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, unknownUsernames, "unknownUsernames");
+    }
+
+    /**
+     * Retrieves a user by username. Every call returns a new detached User built from the cached snapshot, so callers
+     * are free to modify it.
+     * @param username the username
+     * @return the User
+     * @throws UsernameNotFoundException if no user has that username
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Optional<User> userOpt = userRepo.findByUsername(username);
-        return userOpt.orElseThrow(() -> new UsernameNotFoundException("Invalid Credentials"));
+        if (isUnknownUsername(username)) {
+            throw new UsernameNotFoundException("Invalid Credentials");
+        }
+        UserSnapshot snapshot = users.get(username, name -> userRepo.findByUsername(name)
+                .map(UserSnapshot::new)
+                .orElse(null));
+        if (snapshot == null) {
+            unknownUsernames.put(username, Boolean.TRUE);
+            throw new UsernameNotFoundException("Invalid Credentials");
+        }
+        return snapshot.toUser();
+    }
+
+    /**
+     * Stores a rehashed password. Called by Spring Security after a successful login when the stored hash was made
+     * with a lower strength than CustomPasswordEncoder now uses; saving the User evicts its cached snapshot.
+     * @param user the User who logged in
+     * @param newPassword the password hashed with the current strength
+     * @return the User with the new password
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        User stored = userRepo.findByUsername(user.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException("Invalid Credentials"));
+        stored.setPassword(newPassword);
+        userRepo.save(stored);
+        log.info("Upgraded the password hash of user {}", stored.getId());
+        return new UserSnapshot(stored).toUser();
+    }
+
+    /**
+     * Tells whether a username was recently looked up and not found. Does not read the database.
+     * @param username the username
+     * @return true if the username is known not to exist
+     */
+    public boolean isUnknownUsername(String username) {
+        return username == null || unknownUsernames.getIfPresent(username) != null;
+    }
+
+    /**
+     * Drops the cached snapshot of a user so the next lookup reads the database.
+     * @param username the username to evict
+     */
+    public void evict(String username) {
+        if (username != null) {
+            users.invalidate(username);
+            unknownUsernames.invalidate(username);
+        }
+    }
+
+    public CacheStats getCacheStats() {
+        return users.stats();
+    }
+
+    /**
+     * Immutable copy of the fields needed to authenticate a user, plus the cohort start date callers read from the
+     * principal.
+     */
+    private static final class UserSnapshot {
+        private final Long id;
+        private final LocalDate cohortStartDate;
+        private final String username;
+        private final String password;
+        private final List<String> authorities;
+
+        private UserSnapshot(User user) {
+            this.id = user.getId();
+            this.cohortStartDate = user.getCohortStartDate();
+            this.username = user.getUsername();
+            this.password = user.getPassword();
+            this.authorities = user.getAuthorities() == null ? List.of() : user.getAuthorities().stream()
+                    .map(GrantedAuthority::getAuthority)
+                    .collect(Collectors.toUnmodifiableList());
+        }
+
+        private User toUser() {
+            User user = new User();
+            user.setId(id);
+            user.setCohortStartDate(cohortStartDate);
+            user.setUsername(username);
+            user.setPassword(password);
+            user.setAuthorities(authorities.stream().map(Authority::new).collect(Collectors.toList()));
+            return user;
+        }
     }
-}
\ No newline at end of file
+}
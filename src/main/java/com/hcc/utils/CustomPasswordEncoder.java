@@ -1,20 +1,83 @@
 package com.hcc.utils;
 
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PostConstruct;
+import java.util.Arrays;
 
+
+/**
+ * BCrypt encoder whose strength is calibrated at startup so that verifying a password takes about
+ * password.bcrypt.target-ms on this machine, within [min-strength, max-strength]. Setting password.bcrypt.strength
+ * skips the calibration. Hashes made with a lower strength are upgraded on the next successful login, see
+ * {@link com.hcc.services.UserDetailServiceImpl#updatePassword}.
+ */
 @Component
 public class CustomPasswordEncoder {
+    //BCrypt's default, and the floor of the calibration
+    static final int DEFAULT_STRENGTH = 10;
+    private static final int CALIBRATION_ROUNDS = 5;
+
+    private final Logger log = LogManager.getLogger(CustomPasswordEncoder.class);
+
+    //fixed strength; 0 calibrates it
+    @Value("${password.bcrypt.strength:0}")
+    private int strength;
+
+    @Value("${password.bcrypt.target-ms:40}")
+    private long targetMillis = 40;
+
+    @Value("${password.bcrypt.min-strength:10}")
+    private int minStrength = DEFAULT_STRENGTH;
+
+    @Value("${password.bcrypt.max-strength:16}")
+    private int maxStrength = 16;
+
     private PasswordEncoder passwordEncoder;
 
-    public CustomPasswordEncoder(){
-        this.passwordEncoder = new BCryptPasswordEncoder();
+    @PostConstruct
+    public void init() {
+        if (strength == 0) {
+            strength = calibrate();
+        }
+        this.passwordEncoder = new BCryptPasswordEncoder(strength);
     }
 
     public PasswordEncoder getPasswordEncoder(){
         return passwordEncoder;
     }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    //each strength step doubles the work, so one measurement at the default strength predicts all the others
+    private int calibrate() {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(DEFAULT_STRENGTH);
+        String hash = encoder.encode("calibration");
+        encoder.matches("calibration", hash);
+        long[] nanos = new long[CALIBRATION_ROUNDS];
+        for (int i = 0; i < CALIBRATION_ROUNDS; i++) {
+            long start = System.nanoTime();
+            encoder.matches("calibration", hash);
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        double millis = nanos[CALIBRATION_ROUNDS / 2] / 1e6;
+        int calibrated = strengthFor(millis, targetMillis, minStrength, maxStrength);
+        log.info("BCrypt verifies in {}ms at strength {}; using strength {} for a {}ms target",
+                Math.round(millis), DEFAULT_STRENGTH, calibrated, targetMillis);
+        return calibrated;
+    }
+
+    static int strengthFor(double defaultStrengthMillis, long targetMillis, int minStrength, int maxStrength) {
+        int steps = (int) Math.round(Math.log(targetMillis / defaultStrengthMillis) / Math.log(2));
+        return Math.max(minStrength, Math.min(maxStrength, DEFAULT_STRENGTH + steps));
+    }
 }
@@ -0,0 +1,248 @@
+package com.hcc.utils;
+
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.impl.TextCodec;
+
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Component
+public class JwtUtil implements Serializable {
+    //access tokens are short-lived; clients renew them with a refresh token, see RefreshTokenService
+    public static final long DEFAULT_ACCESS_TOKEN_VALIDITY = 15 * 60;
+    public static final String AUTHORITIES_CLAIM = "authorities";
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String AUTHORITIES_VERSION_CLAIM = "ver";
+
+    @Value("${jwt.secret}")
+    private String secret;
+
+    @Value("${jwt.access-token.validity-seconds:900}")
+    private long accessTokenValiditySeconds = DEFAULT_ACCESS_TOKEN_VALIDITY;
+
+    @Value("${jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+
+    //token digest -> claims of a token whose signature has already been checked
+    private transient Cache<String, Claims> verifiedTokens;
+
+    //built once from jwt.secret; the parser is never reconfigured after init, so it is safe to share
+    private transient Key signingKey;
+    private transient JwtParser parser;
+
+    @PostConstruct
+    public void init() {
+        signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secret), SignatureAlgorithm.HS256.getJcaName());
+        parser = Jwts.parser().setSigningKey(signingKey);
+
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        return nanosUntilExpiration(claims);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return nanosUntilExpiration(claims);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    public String getUsernameFromToken(String token) {
+        return getClaimFromToken(token, Claims::getSubject);
+    }
+
+    public Date getIssuedAtDateFromToken(String token) {
+        return getClaimFromToken(token, Claims::getIssuedAt);
+    }
+
+
+    public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
+        final Claims claims = parseToken(token);
+        return claimsResolver.apply(claims);
+    }
+
+    public Date getExpirationDateFromToken(String token) {
+        return getClaimFromToken(token, Claims::getExpiration);
+    }
+
+    /**
+     * Parses the token and verifies its signature and expiration, once. Tokens that have already been verified are
+     * served from a bounded cache keyed by the token's SHA-256 digest, and each entry is dropped no later than the
+     * token's own expiration. The returned claims are shared between callers and must be treated as read-only.
+     * @param token the compact JWT
+     * @return the verified claims
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, has a bad signature or has expired
+     * @throws IllegalArgumentException if the token is empty
+     */
+    public Claims parseToken(String token) {
+        final String digest = digest(token);
+        Claims claims = verifiedTokens.getIfPresent(digest);
+        if (claims != null && !isTokenExpired(claims)) {
+            return claims;
+        }
+
+        claims = getAllClaimsFromToken(token);
+        verifiedTokens.put(digest, claims);
+        return claims;
+    }
+
+    private Claims getAllClaimsFromToken(String token) {
+        return parser
+                .parseClaimsJws(token)
+                .getBody();
+    }
+
+    private Boolean isTokenExpired(Claims claims) {
+        final Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
+    }
+
+    private static long nanosUntilExpiration(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            return 0;
+        }
+        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, expiration.getTime() - System.currentTimeMillis()));
+    }
+
+    private static String digest(String token) {
+        if (token == null || token.isEmpty()) {
+            throw new IllegalArgumentException("JWT String argument cannot be null or empty.");
+        }
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public String generateToken(UserDetails userDetails) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(AUTHORITIES_CLAIM, userDetails.getAuthorities()
+                .stream()
+                .map(auth -> auth.getAuthority())
+                .collect(Collectors.toList()));
+        claims.put(AUTHORITIES_VERSION_CLAIM, getAuthoritiesVersion(userDetails.getAuthorities()));
+        if (userDetails instanceof User && ((User) userDetails).getId() != null) {
+            claims.put(USER_ID_CLAIM, ((User) userDetails).getId());
+        }
+
+        return doGenerateToken(claims, userDetails.getUsername());
+    }
+
+    private String doGenerateToken(Map<String, Object> claims, String subject) {
+        return Jwts.builder()
+                .setClaims(claims).setSubject(subject)
+                //lets the token be revoked before it expires, see TokenRevocationService
+                .setId(UUID.randomUUID().toString())
+                .setIssuedAt(new Date(System.currentTimeMillis()))
+                .setExpiration(new Date(System.currentTimeMillis() + accessTokenValiditySeconds*1000))
+                .signWith(SignatureAlgorithm.HS256, signingKey)
+                .compact();
+    }
+
+    public Boolean validateToken(String token, UserDetails userDetails) {
+        return validateToken(parseToken(token), userDetails);
+    }
+
+    /**
+     * Validates already verified claims against a user, without parsing the token again.
+     * @param claims claims returned by {@link #parseToken(String)}
+     * @param userDetails the user the token should belong to
+     * @return true if the token belongs to the user and has not expired
+     */
+    public Boolean validateToken(Claims claims, UserDetails userDetails) {
+        if (userDetails == null) {
+            return false;
+        }
+        final String username = claims.getSubject();
+        return (
+                username.equals(userDetails.getUsername())
+                        && !isTokenExpired(claims));
+    }
+
+    /**
+     * Computes a short fingerprint of a set of authorities. It is signed into every token so that a token can be
+     * checked against the user's current roles without comparing the full lists.
+     * @param authorities the user's authorities
+     * @return the authorities version
+     */
+    public static String getAuthoritiesVersion(Collection<? extends GrantedAuthority> authorities) {
+        String joined = authorities == null ? "" : authorities.stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(","));
+        return Integer.toHexString(joined.hashCode());
+    }
+
+    /**
+     * Checks whether the token carries everything needed to authenticate without loading the user.
+     * Tokens issued before the identity claims were introduced do not.
+     * @param claims verified claims
+     * @return true if the user id, authorities and authorities version are present
+     */
+    public boolean hasIdentityClaims(Claims claims) {
+        return claims.get(USER_ID_CLAIM) instanceof Number
+                && claims.get(AUTHORITIES_CLAIM) instanceof Collection
+                && claims.get(AUTHORITIES_VERSION_CLAIM) instanceof String;
+    }
+
+    /**
+     * Builds a detached User from verified identity claims. The User is not loaded from the database and carries no
+     * password or cohort date.
+     * @param claims verified claims, see {@link #hasIdentityClaims(Claims)}
+     * @return the User the token was issued to
+     */
+    public User getUserFromClaims(Claims claims) {
+        User user = new User();
+        user.setId(((Number) claims.get(USER_ID_CLAIM)).longValue());
+        user.setUsername(claims.getSubject());
+        user.setAuthorities(((Collection<?>) claims.get(AUTHORITIES_CLAIM)).stream()
+                .map(authority -> new Authority(String.valueOf(authority)))
+                .collect(Collectors.toList()));
+        return user;
+    }
+
+    public String getAuthoritiesVersion(Claims claims) {
+        return claims.get(AUTHORITIES_VERSION_CLAIM, String.class);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.hcc.utils;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * One token bucket per key, so keys never share a bucket however many of them are seen. Buckets are lock-free: each
+ * one is a single "theoretical arrival time" updated by compare-and-set (the generic cell rate algorithm), which
+ * behaves as a bucket of capacity tokens refilled with one token every refillNanos. A bucket left alone for
+ * capacity * refillNanos is full again and expires, and at most maximumKeys buckets are kept: an evicted bucket
+ * starts full when its key comes back, so memory stays bounded at the price of forgetting the least recent keys.
+ */
+public class TokenBuckets {
+    private final Cache<Object, AtomicLong> arrivals;
+    private final long refillNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+
+    /**
+     * @param maximumKeys the number of buckets kept at most
+     * @param capacity the number of tokens of a full bucket
+     * @param refillNanos the time it takes to refill one token
+     * @param nanoClock the clock, e.g. System::nanoTime
+     */
+    public TokenBuckets(long maximumKeys, int capacity, long refillNanos, LongSupplier nanoClock) {
+        this.refillNanos = refillNanos;
+        this.burstNanos = capacity * refillNanos;
+        this.nanoClock = nanoClock;
+        this.arrivals = Caffeine.newBuilder()
+                .maximumSize(maximumKeys)
+                .expireAfterAccess(Duration.ofNanos(burstNanos))
+                .ticker(nanoClock::getAsLong)
+                .build();
+        //times are kept relative to the creation of the buckets, so every bucket starts full at 0
+        this.origin = nanoClock.getAsLong() - burstNanos;
+    }
+
+    /**
+     * Takes a token from the bucket of a key.
+     * @param key the key, e.g. a username
+     * @return 0 if a token was taken, otherwise the nanoseconds until one is available
+     */
+    public long tryAcquire(Object key) {
+        AtomicLong bucket = arrivals.get(key, k -> new AtomicLong());
+        while (true) {
+            long now = nanoClock.getAsLong() - origin;
+            long arrival = bucket.get();
+            long next = Math.max(arrival, now) + refillNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return the number of buckets currently kept
+     */
+    public long size() {
+        arrivals.cleanUp();
+        return arrivals.estimatedSize();
+    }
+}
@@ -0,0 +1,28 @@
+-- When an assignment last entered SUBMITTED (status step 2), so reviewers claim the pool in submission order: an
+-- assignment is created pending and may be submitted long after newer ones. Set by a trigger in the transaction that
+-- changes the status, whatever statement does it.
+alter table assignments add column if not exists submitted_at timestamptz;
+
+update assignments a set submitted_at = coalesce(
+        (select max(e.changed_at) from assignment_status_events e
+         where e.assignment_id = a.assignment_id and e.to_status = 2),
+        now())
+where a.status = 2 and a.submitted_at is null;
+
+create or replace function set_assignment_submitted_at() returns trigger as $$
+begin
+    if new.status = 2 and (tg_op = 'INSERT' or old.status is distinct from 2) then
+        new.submitted_at := now();
+    end if;
+    return new;
+end;
+$$ language plpgsql;
+
+drop trigger if exists assignment_submitted_at on assignments;
+create trigger assignment_submitted_at
+    before insert or update of status on assignments
+    for each row execute function set_assignment_submitted_at();
+
+-- lockOldestSubmitted: status = 2 order by submitted_at, assignment_id; replaces the pool index ordered by id
+drop index if exists idx_assignments_submitted;
+create index if not exists idx_assignments_submitted on assignments (submitted_at, assignment_id) where status = 2;
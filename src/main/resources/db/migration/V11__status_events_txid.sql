@@ -0,0 +1,26 @@
+-- Makes the time-in-status watermark commit-safe. Event ids come from a sequence before the writing transaction
+-- commits, so a long transaction could commit an event below ids already folded, and the event was skipped for good.
+-- Events now carry the id of the transaction that wrote them, and AssignmentAnalyticsService folds whole
+-- transactions, only those below the xmin of its snapshot: they have all ended, so their events are all visible and
+-- each is folded exactly once. Transaction ids are stored as int8, which holds every xid8.
+alter table assignment_status_events add column if not exists txid int8;
+
+-- events already folded sort below the new watermark (2), the others at it
+update assignment_status_events set txid = case
+        when event_id <= (select last_event_id from assignment_analytics_watermarks where name = 'time_in_status')
+        then 1 else 2 end
+where txid is null;
+
+alter table assignment_status_events
+    alter column txid set default pg_current_xact_id()::text::int8,
+    alter column txid set not null;
+
+-- the time in a status is measured from when the change was made, not from when its transaction started
+alter table assignment_status_events alter column changed_at set default clock_timestamp();
+
+-- the events of a batch: txid >= ? and txid < ?
+create index if not exists idx_status_events_txid on assignment_status_events (txid);
+
+-- every transaction below next_txid has been folded
+alter table assignment_analytics_watermarks add column if not exists next_txid int8 not null default 2;
+alter table assignment_analytics_watermarks drop column if exists last_event_id;
@@ -0,0 +1,29 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Every statement is a no-op on databases that
+-- already have it, so this script can run on both new and existing databases.
+create table if not exists users (
+    user_id bigserial not null,
+    date date,
+    password varchar(255),
+    username varchar(255),
+    primary key (user_id),
+    constraint uk_users_username unique (username)
+);
+
+create table if not exists authorities (
+    authority_id bigserial not null,
+    authority varchar(255),
+    user_id int8 references users (user_id),
+    primary key (authority_id)
+);
+
+create table if not exists assignments (
+    assignment_id bigserial not null,
+    branch varchar(255),
+    github_url varchar(255),
+    number int4,
+    status varchar(255),
+    video_url varchar(255),
+    code_reviewer_id int8 references users (user_id),
+    user_id int8 references users (user_id),
+    primary key (assignment_id)
+);
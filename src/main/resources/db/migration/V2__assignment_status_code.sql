@@ -0,0 +1,11 @@
+-- Assignment status is stored as the AssignmentStatusEnum step instead of its display text
+-- (see AssignmentStatusConverter).
+alter table assignments alter column status type int4 using
+    case status
+        when 'Pending Submission' then 1
+        when 'Submitted' then 2
+        when 'In Review' then 3
+        when 'Needs Update' then 4
+        when 'Completed' then 5
+        when 'Resubmitted' then 6
+    end;
@@ -0,0 +1,18 @@
+-- Indexes matched to the AssignmentRepository and UserRepository queries. Every assignment list is ordered by
+-- assignment_id, so it is the trailing column wherever a filter leaves more than one row.
+
+-- findByUserId, findLearnerDashboard, findLearnerPage: user_id = ? [and assignment_id > ?] order by assignment_id
+create index if not exists idx_assignments_user_id on assignments (user_id, assignment_id);
+
+-- findByCodeReviewerIdAndStatus and the claimed branch of the reviewer dashboard:
+-- code_reviewer_id = ? and status in (...)
+create index if not exists idx_assignments_reviewer_status on assignments (code_reviewer_id, status, assignment_id);
+
+-- the unclaimed pool every reviewer reads (status = 2, SUBMITTED): a small partial index kept in FIFO order
+create index if not exists idx_assignments_submitted on assignments (assignment_id) where status = 2;
+
+-- findByStatus for the other statuses
+create index if not exists idx_assignments_status on assignments (status, assignment_id);
+
+-- authorities of a user, fetched with findByUsername and in batches for lazily loaded users
+create index if not exists idx_authorities_user_id on authorities (user_id);
@@ -0,0 +1,2 @@
+-- Optimistic locking version of Assignment (@Version), also served as the ETag of GET/PUT /api/assignments/{id}.
+alter table assignments add column if not exists version int8 not null default 0;
@@ -0,0 +1,6 @@
+-- The entities draw their ids from the serial sequences with a pooled optimizer (allocationSize = 50) instead of
+-- IDENTITY, which lets Hibernate batch inserts. Each nextval reserves the 50 ids ending at the returned value, so
+-- rows inserted through the column default (one nextval per row) never collide with ids handed out by Hibernate.
+alter sequence users_user_id_seq increment by 50;
+alter sequence authorities_authority_id_seq increment by 50;
+alter sequence assignments_assignment_id_seq increment by 50;
@@ -0,0 +1,51 @@
+-- Append-only log of assignment status transitions, written by a trigger in the transaction that changes the status,
+-- whatever statement does it (entity saves, the version-checked update, claim-next).
+create table if not exists assignment_status_events (
+    event_id bigserial not null,
+    assignment_id int8 not null references assignments (assignment_id) on delete cascade,
+    -- status steps, see AssignmentStatusEnum; from_status is null for a new assignment
+    from_status int4,
+    to_status int4 not null,
+    changed_at timestamptz not null default now(),
+    primary key (event_id)
+);
+
+-- the previous event of an assignment, looked up by the aggregator for every new event
+create index if not exists idx_status_events_assignment on assignment_status_events (assignment_id, event_id);
+
+create or replace function record_assignment_status_event() returns trigger as $$
+begin
+    if tg_op = 'INSERT' or new.status is distinct from old.status then
+        insert into assignment_status_events (assignment_id, from_status, to_status)
+        values (new.assignment_id, case when tg_op = 'UPDATE' then old.status end, new.status);
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+drop trigger if exists assignment_status_events on assignments;
+create trigger assignment_status_events
+    after insert or update of status on assignments
+    for each row execute function record_assignment_status_event();
+
+-- Time spent in a status before leaving it, per learner cohort (users.date) and assignment number, as histograms
+-- with 4 buckets per doubling of seconds (bucket = floor(4 * log2(seconds))). Maintained incrementally by
+-- AssignmentAnalyticsService from the event log; percentiles are read from here, never from the events.
+create table if not exists assignment_time_in_status (
+    cohort_start_date date,
+    assignment_number int4,
+    status int4 not null,
+    bucket int4 not null,
+    transitions int8 not null,
+    constraint uk_time_in_status unique nulls not distinct (cohort_start_date, assignment_number, status, bucket)
+);
+
+-- last event folded into assignment_time_in_status
+create table if not exists assignment_analytics_watermarks (
+    name varchar(64) not null,
+    last_event_id int8 not null,
+    primary key (name)
+);
+
+insert into assignment_analytics_watermarks (name, last_event_id) values ('time_in_status', 0)
+on conflict (name) do nothing;
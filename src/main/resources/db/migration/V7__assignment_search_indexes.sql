@@ -0,0 +1,6 @@
+-- Trigram indexes for GET /api/assignments/search, which matches fragments of the GitHub URL and branch with ILIKE
+-- and ranks the matches by similarity. Needs the pg_trgm extension (shipped with PostgreSQL contrib).
+create extension if not exists pg_trgm;
+
+create index if not exists idx_assignments_github_url_trgm on assignments using gin (github_url gin_trgm_ops);
+create index if not exists idx_assignments_branch_trgm on assignments using gin (branch gin_trgm_ops);
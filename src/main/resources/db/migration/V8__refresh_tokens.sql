@@ -0,0 +1,20 @@
+-- Opaque refresh tokens, stored as their SHA-256 hex digest only. Every use replaces the token with a new one of the
+-- same family; a replaced token presented again means the family was stolen, and the whole family is deleted.
+create sequence if not exists refresh_tokens_refresh_token_id_seq increment by 50;
+
+create table if not exists refresh_tokens (
+    refresh_token_id int8 not null default nextval('refresh_tokens_refresh_token_id_seq'),
+    token_hash varchar(64) not null,
+    family_id varchar(36) not null,
+    user_id int8 not null references users (user_id) on delete cascade,
+    expires_at timestamptz not null,
+    -- set when the token is exchanged for its successor
+    replaced_at timestamptz,
+    primary key (refresh_token_id),
+    constraint uk_refresh_tokens_hash unique (token_hash)
+);
+
+alter sequence refresh_tokens_refresh_token_id_seq owned by refresh_tokens.refresh_token_id;
+
+create index if not exists idx_refresh_tokens_family on refresh_tokens (family_id);
+create index if not exists idx_refresh_tokens_expires_at on refresh_tokens (expires_at);
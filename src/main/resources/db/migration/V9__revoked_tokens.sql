@@ -0,0 +1,12 @@
+-- Ids (jti claim) of access tokens revoked before their expiration, by logout or by an admin. Every instance keeps
+-- the unexpired rows in memory and polls for new ones by revoked_at; rows are deleted once the token has expired.
+create table if not exists revoked_tokens (
+    jti varchar(36) not null,
+    -- expiration of the revoked token; the row is useless afterwards
+    expires_at timestamptz not null,
+    revoked_at timestamptz not null default now(),
+    primary key (jti)
+);
+
+create index if not exists idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at);
+create index if not exists idx_revoked_tokens_expires_at on revoked_tokens (expires_at);
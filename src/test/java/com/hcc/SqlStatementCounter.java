@@ -0,0 +1,43 @@
+package com.hcc;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+/**
+ * Records every SQL statement Hibernate prepares so tests can pin the number of round trips a code path makes.
+ * Register it with {@code spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hcc.SqlStatementCounter}.
+ */
+public class SqlStatementCounter implements StatementInspector {
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        statements.add(sql);
+        return sql;
+    }
+
+    public static void reset() {
+        statements.clear();
+    }
+
+    public static List<String> getStatements() {
+        return List.copyOf(statements);
+    }
+
+    public static long count() {
+        return statements.size();
+    }
+
+    /**
+     * Counts the recorded statements matching a regular expression, ignoring case.
+     * @param regex the pattern to look for
+     * @return the number of matching statements
+     */
+    public static long count(String regex) {
+        Pattern pattern = Pattern.compile(regex, Pattern.CASE_INSENSITIVE);
+        return statements.stream().filter(sql -> pattern.matcher(sql).find()).count();
+    }
+}
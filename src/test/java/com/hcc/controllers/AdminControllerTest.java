@@ -0,0 +1,50 @@
+package com.hcc.controllers;
+
+import com.hcc.services.TokenRevocationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc(addFilters = false)
+public class AdminControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
+    @Test
+    public void revokeToken_uuid_revokesToken() throws Exception {
+        String jti = UUID.randomUUID().toString();
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/admin/tokens/{jti}/revoke", jti))
+                .andExpect(status().isNoContent());
+
+        verify(tokenRevocationService).revoke(eq(jti), any());
+    }
+
+    @Test
+    public void revokeToken_notUuid_returnsBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/admin/tokens/{jti}/revoke", "not-a-token-id"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/admin/tokens/{jti}/revoke", "1-1-1-1-1"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(tokenRevocationService);
+    }
+}
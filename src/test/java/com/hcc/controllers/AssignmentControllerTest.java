@@ -3,11 +3,15 @@ package com.hcc.controllers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hcc.dtos.AssignmentCreateDto;
 import com.hcc.dtos.AssignmentDto;
+import com.hcc.dtos.AssignmentPageDto;
+import com.hcc.dtos.AssignmentSummaryDto;
 import com.hcc.entities.Assignment;
 import com.hcc.entities.Authority;
 import com.hcc.entities.User;
 import com.hcc.enums.AssignmentStatusEnum;
 import com.hcc.enums.AuthorityEnum;
+import com.hcc.exceptions.AssignmentConflictException;
+import com.hcc.exceptions.ResourceNotFoundException;
 import com.hcc.exceptions.UnauthorizedAccessException;
 import com.hcc.mappers.AssignmentMapper;
 import com.hcc.repositories.AssignmentRepository;
@@ -21,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -33,6 +38,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -40,6 +46,7 @@ import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -82,24 +89,43 @@ public class AssignmentControllerTest {
     public void getAssignmentsByUser_learner_returnsList() throws Exception {
         checkUserAuthentication(userDetails, learner);
 
-        when(assignmentRepository.findByUserId(learner.getId())).thenReturn(assignmentList);
-        when(assignmentService.getAssignmentsByLearner(learner)).thenReturn(mapper.toDtoList(assignmentList));
+        when(assignmentService.getAssignmentsByLearner(learner)).thenReturn(toSummaries(assignmentList));
 
         mockMvc.perform(MockMvcRequestBuilders
                 .get("/api/assignments").with(user(userDetails)))
                 .andExpect(status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(assignmentList.size())));
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(assignmentList.size())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].status",
+                        CoreMatchers.is(AssignmentStatusEnum.RESUBMITTED.name())))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].learnerId", CoreMatchers.is(123)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$[0].user").doesNotExist());
 
         verify(assignmentService).getAssignmentsByLearner(learner);
     }
 
+    @Test
+    public void getAssignmentCountsByUser_learner_returnsCounts() throws Exception {
+        checkUserAuthentication(userDetails, learner);
+
+        when(assignmentService.getAssignmentCountsByLearner(learner))
+                .thenReturn(Map.of("SUBMITTED", 3L, "COMPLETED", 1L));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments/counts").with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.SUBMITTED", CoreMatchers.is(3)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.COMPLETED", CoreMatchers.is(1)));
+
+        verify(assignmentService).getAssignmentCountsByLearner(learner);
+        verify(assignmentService, never()).getAssignmentsByLearner(any());
+    }
+
     @Test
     public void getAssignmentsByUser_noAssignments_returnsNoContent() throws Exception {
         List<Assignment> mockList = new ArrayList<>();
         checkUserAuthentication(userDetails, learner);
 
-        when(assignmentRepository.findByUserId(learner.getId())).thenReturn(mockList);
-        when(assignmentService.getAssignmentsByLearner(learner)).thenReturn(mapper.toDtoList(mockList));
+        when(assignmentService.getAssignmentsByLearner(learner)).thenReturn(toSummaries(mockList));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/api/assignments").with(user(learner)))
@@ -110,28 +136,25 @@ public class AssignmentControllerTest {
 
     @Test
     public void getAssignmentsByUser_reviewer_returnsList() throws Exception {
-        String submitted = AssignmentStatusEnum.SUBMITTED.getStatus();
-        String resubmitted = AssignmentStatusEnum.RESUBMITTED.getStatus();
-        String completed = AssignmentStatusEnum.COMPLETED.getStatus();
+        AssignmentStatusEnum submitted = AssignmentStatusEnum.SUBMITTED;
+        AssignmentStatusEnum resubmitted = AssignmentStatusEnum.RESUBMITTED;
+        AssignmentStatusEnum completed = AssignmentStatusEnum.COMPLETED;
 
         checkUserAuthentication(userDetails, reviewer);
 
         List<Assignment> submittedAssignments =
-                assignmentList.stream().filter(a -> a.getStatus().equals(submitted)).collect(Collectors.toList());
+                assignmentList.stream().filter(a -> a.getStatus() == submitted).collect(Collectors.toList());
         List<Assignment> resubmittedAssignments =
-                assignmentList.stream().filter(a -> a.getStatus().equals(resubmitted)).collect(Collectors.toList());
+                assignmentList.stream().filter(a -> a.getStatus() == resubmitted).collect(Collectors.toList());
         List<Assignment> completedAssignments =
-                assignmentList.stream().filter(a -> a.getStatus().equals(completed)).collect(Collectors.toList());
+                assignmentList.stream().filter(a -> a.getStatus() == completed).collect(Collectors.toList());
 
         List<Assignment> returnedAssignments = new ArrayList<>();
         returnedAssignments.addAll(submittedAssignments);
         returnedAssignments.addAll(resubmittedAssignments);
         returnedAssignments.addAll(completedAssignments);
 
-        when(assignmentRepository.findByStatus(submitted)).thenReturn(submittedAssignments);
-        when(assignmentRepository.findByCodeReviewerIdAndStatus(reviewer.getId(), resubmitted)).thenReturn(resubmittedAssignments);
-        when(assignmentRepository.findByCodeReviewerIdAndStatus(reviewer.getId(), completed)).thenReturn(completedAssignments);
-        when(assignmentService.getAssignmentsByReviewer(reviewer)).thenReturn(mapper.toDtoList(returnedAssignments));
+        when(assignmentService.getAssignmentsByReviewer(reviewer)).thenReturn(toSummaries(returnedAssignments));
 
         mockMvc.perform(MockMvcRequestBuilders
                         .get("/api/assignments")
@@ -142,6 +165,36 @@ public class AssignmentControllerTest {
         verify(assignmentService).getAssignmentsByReviewer(reviewer);
     }
 
+    @Test
+    public void getAssignmentsByUser_learnerWithLimit_returnsPage() throws Exception {
+        checkUserAuthentication(userDetails, learner);
+
+        AssignmentPageDto page = new AssignmentPageDto(toSummaries(assignmentList.subList(0, 2)), "MTI");
+        when(assignmentService.getAssignmentPageByLearner(learner, null, 2)).thenReturn(page);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments").param("limit", "2").with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.assignments.size()", CoreMatchers.is(2)))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.nextCursor", CoreMatchers.is("MTI")));
+
+        verify(assignmentService).getAssignmentPageByLearner(learner, null, 2);
+    }
+
+    @Test
+    public void claimNextAssignments_reviewer_returnsClaimed() throws Exception {
+        checkUserAuthentication(userDetails, reviewer);
+
+        when(assignmentService.claimNextAssignments(reviewer, 2)).thenReturn(toSummaries(assignmentList.subList(0, 2)));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/assignments/claim-next").param("count", "2").with(user(userDetails)))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("$.size()", CoreMatchers.is(2)));
+
+        verify(assignmentService).claimNextAssignments(reviewer, 2);
+    }
+
     @Test
     public void getAssignmentById_returnsOK() throws Exception {
         Assignment assignment = assignmentList.get(0);
@@ -155,7 +208,9 @@ public class AssignmentControllerTest {
         mockMvc.perform(MockMvcRequestBuilders
                 .get("/api/assignments/{id}", json))
                 .andExpect(status().isOk())
-                .andExpect(content().string(objectMapper.writeValueAsString(mapper.toDto(assignment))));
+                .andExpect(content().string(objectMapper.writeValueAsString(mapper.toDto(assignment))))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.status",
+                        CoreMatchers.is(AssignmentStatusEnum.RESUBMITTED.getStatus())));
 
         verify(assignmentService).getAssignmentById(assignmentId);
     }
@@ -163,7 +218,7 @@ public class AssignmentControllerTest {
     @Test
     public void putAssignment_successfulLearnerUpdate_returnsOK() throws Exception {
         Long assignmentId = 123L;
-        Assignment original = new Assignment(AssignmentStatusEnum.NEEDS_UPDATE.getStatus(), 1, "github", "branch",
+        Assignment original = new Assignment(AssignmentStatusEnum.NEEDS_UPDATE, 1, "github", "branch",
                 null, learner, reviewer);
         original.setId(assignmentId);
 
@@ -172,7 +227,7 @@ public class AssignmentControllerTest {
         updated.setGithubUrl("github.com");
         updated.setBranch("branch.com");
 
-        Assignment expected = new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 1, "github.com", "branch" +
+        Assignment expected = new Assignment(AssignmentStatusEnum.RESUBMITTED, 1, "github.com", "branch" +
                 ".com", null, learner, reviewer);
 
         checkUserAuthentication(userDetails, learner);
@@ -194,7 +249,7 @@ public class AssignmentControllerTest {
     @Test
     public void putAssignment_successfulReviewerUpdate_returnsOK() throws Exception {
         Long assignmentId = 123L;
-        Assignment original = new Assignment(AssignmentStatusEnum.SUBMITTED.getStatus(), 1, "github", "branch",
+        Assignment original = new Assignment(AssignmentStatusEnum.SUBMITTED, 1, "github", "branch",
                 null, learner, null);
         original.setId(assignmentId);
 
@@ -202,7 +257,7 @@ public class AssignmentControllerTest {
         updated.setStatus(AssignmentStatusEnum.IN_REVIEW.getStatus());
         updated.setCodeReviewer(reviewer);
 
-        Assignment expected = new Assignment(AssignmentStatusEnum.IN_REVIEW.getStatus(), 1, "github", "branch",
+        Assignment expected = new Assignment(AssignmentStatusEnum.IN_REVIEW, 1, "github", "branch",
                 null, learner, reviewer);
 
         checkUserAuthentication(userDetails, reviewer);
@@ -221,6 +276,94 @@ public class AssignmentControllerTest {
         verify(assignmentService).updateAssignmentById(updated, assignmentId, reviewer);
     }
 
+    @Test
+    public void putAssignment_ifMatch_updatesThatVersionAndReturnsETag() throws Exception {
+        Long assignmentId = 123L;
+        AssignmentDto updated = new AssignmentDto();
+        updated.setBranch("branch.com");
+
+        AssignmentDto expectedUpdate = new AssignmentDto();
+        expectedUpdate.setBranch("branch.com");
+        expectedUpdate.setVersion(4L);
+
+        Assignment expected = new Assignment(AssignmentStatusEnum.NEEDS_UPDATE, 1, "github", "branch.com",
+                null, learner, reviewer);
+        expected.setVersion(5L);
+
+        checkUserAuthentication(userDetails, learner);
+        doReturn(mapper.toDto(expected)).when(assignmentService)
+                .updateAssignmentById(expectedUpdate, assignmentId, learner);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/assignments/{id}", assignmentId).with(user(userDetails))
+                        .header(HttpHeaders.IF_MATCH, "\"4\"")
+                        .content(objectMapper.writeValueAsString(updated))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"5\""));
+
+        verify(assignmentService).updateAssignmentById(expectedUpdate, assignmentId, learner);
+    }
+
+    @Test
+    public void putAssignment_weakIfMatch_returnsPreconditionFailed() throws Exception {
+        AssignmentDto updated = new AssignmentDto();
+        updated.setBranch("branch.com");
+
+        checkUserAuthentication(userDetails, learner);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/assignments/{id}", 123L).with(user(userDetails))
+                        .header(HttpHeaders.IF_MATCH, "W/\"4\"")
+                        .content(objectMapper.writeValueAsString(updated))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(assignmentService);
+    }
+
+    @Test
+    public void putAssignment_ifMatchAnyOnMissingAssignment_returnsNotFound() throws Exception {
+        Long assignmentId = 123L;
+        AssignmentDto updated = new AssignmentDto();
+        updated.setBranch("branch.com");
+        updated.setVersion(4L);
+
+        AssignmentDto expectedUpdate = new AssignmentDto();
+        expectedUpdate.setBranch("branch.com");
+
+        checkUserAuthentication(userDetails, learner);
+        doThrow(new ResourceNotFoundException("missing")).when(assignmentService)
+                .updateAssignmentById(expectedUpdate, assignmentId, learner);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/assignments/{id}", assignmentId).with(user(userDetails))
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .content(objectMapper.writeValueAsString(updated))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isNotFound());
+
+        verify(assignmentService).updateAssignmentById(expectedUpdate, assignmentId, learner);
+    }
+
+    @Test
+    public void putAssignment_staleVersion_returnsConflict() throws Exception {
+        Long assignmentId = 123L;
+        AssignmentDto updated = new AssignmentDto();
+        updated.setBranch("branch.com");
+        updated.setVersion(4L);
+
+        checkUserAuthentication(userDetails, learner);
+        doThrow(new AssignmentConflictException("modified")).when(assignmentService)
+                .updateAssignmentById(updated, assignmentId, learner);
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/assignments/{id}", assignmentId).with(user(userDetails))
+                        .content(objectMapper.writeValueAsString(updated))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     public void putAssignment_userNotAuthenticated_returnsUnauthorized() throws Exception {
         AssignmentDto assignment = mapper.toDto(assignmentList.get(0));
@@ -261,7 +404,7 @@ public class AssignmentControllerTest {
         assignment.setBranch("branch");
         assignment.setGithubUrl("github");
 
-        Assignment expectedAssignment = new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION.getStatus(), 1,
+        Assignment expectedAssignment = new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 1,
                 "github", "branch", null, learner, null);
 
         checkUserAuthentication(userDetails, learner);
@@ -305,22 +448,32 @@ public class AssignmentControllerTest {
         String reviewVideoUrl = "review.com";
 
         List<Assignment> assignments = new ArrayList<>();
-        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 1, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED, 1, github, branch,
                 null, learner, reviewer));
-        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 2, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED, 2, github, branch,
                 null, learner, null));
-        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 3, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED, 3, github, branch,
                 null, learner, learner));
-        assignments.add(new Assignment(AssignmentStatusEnum.NEEDS_UPDATE.getStatus(), 1, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.NEEDS_UPDATE, 1, github, branch,
                 null, learner, reviewer));
-        assignments.add(new Assignment(AssignmentStatusEnum.SUBMITTED.getStatus(), 5, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.SUBMITTED, 5, github, branch,
                 null, learner, null));
-        assignments.add(new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION.getStatus(), 6, github,
+        assignments.add(new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 6, github,
                 branch, null, null, null));
 
         return assignments;
     }
 
+    private List<AssignmentSummaryDto> toSummaries(List<Assignment> assignments) {
+        return assignments.stream()
+                .map(a -> new AssignmentSummaryDto(a.getId(), a.getNumber(), a.getStatus(),
+                        a.getUser() == null ? null : a.getUser().getId(),
+                        a.getUser() == null ? null : a.getUser().getUsername(),
+                        a.getCodeReviewer() == null ? null : a.getCodeReviewer().getId(),
+                        a.getCodeReviewer() == null ? null : a.getCodeReviewer().getUsername()))
+                .collect(Collectors.toList());
+    }
+
     private void checkUserAuthentication(UserDetails userDetails, User user) {
         Authentication authentication = mock(Authentication.class);
         when(authentication.getPrincipal()).thenReturn(userDetails);
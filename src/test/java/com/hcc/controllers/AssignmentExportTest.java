@@ -0,0 +1,113 @@
+package com.hcc.controllers;
+
+import com.hcc.entities.Assignment;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.repositories.AssignmentRepository;
+import com.hcc.repositories.UserRepository;
+import com.hcc.utils.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exports a cohort through GET /api/assignments/export. Not transactional: the export reads in its own transaction
+ * on another thread, so the data is committed and deleted again afterwards.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AssignmentExportTest {
+    //a cohort no real learner belongs to, so the export only holds this test's assignments
+    private static final LocalDate COHORT = LocalDate.of(1970, 1, 12);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User learner;
+    private User reviewer;
+    private List<Assignment> assignments;
+
+    @BeforeEach
+    public void setup() {
+        learner = saveUser(AuthorityEnum.ROLE_LEARNER);
+        reviewer = saveUser(AuthorityEnum.ROLE_REVIEWER);
+        assignments = assignmentRepository.saveAll(List.of(
+                new Assignment(AssignmentStatusEnum.SUBMITTED, 1, "github.com", "main", null, learner, null),
+                new Assignment(AssignmentStatusEnum.COMPLETED, 2, "github.com", "fix, \"quoted\"", "video.com",
+                        learner, reviewer)));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        assignmentRepository.deleteAll(assignments);
+        userRepository.delete(learner);
+        userRepository.delete(reviewer);
+    }
+
+    @Test
+    public void exportAssignments_csv_streamsCohortRows() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments/export")
+                        .param("format", "csv")
+                        .param("cohort", COHORT.toString())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(reviewer)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String csv = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = csv.split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("id,number,name,status,githubUrl,branch,reviewVideoUrl,learnerId,learnerName," +
+                "cohortStartDate,reviewerId,reviewerName", lines[0]);
+        assertEquals(assignments.get(1).getId() + ",2,Spring Boot Data JPA,COMPLETED,github.com," +
+                "\"fix, \"\"quoted\"\"\",video.com," + learner.getId() + "," + learner.getUsername() + "," + COHORT + "," +
+                reviewer.getId() + "," + reviewer.getUsername(), lines[2]);
+    }
+
+    @Test
+    public void exportAssignments_learner_unauthorized() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments/export")
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(learner)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private User saveUser(AuthorityEnum role) {
+        List<Authority> authorities = new ArrayList<>();
+        User user = new User(COHORT, role.name() + "-" + UUID.randomUUID(), "password", authorities);
+        Authority authority = new Authority(role.name());
+        authority.setUser(user);
+        authorities.add(authority);
+        return userRepository.save(user);
+    }
+}
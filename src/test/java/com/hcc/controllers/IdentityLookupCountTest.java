@@ -0,0 +1,170 @@
+package com.hcc.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcc.SqlStatementCounter;
+import com.hcc.dtos.AssignmentCreateDto;
+import com.hcc.dtos.AssignmentDto;
+import com.hcc.entities.Assignment;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.repositories.AssignmentRepository;
+import com.hcc.repositories.UserRepository;
+import com.hcc.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each authenticated endpoint issues for a whole request, identity lookup
+ * included. Sequence calls are left out: the pooled optimizer only fetches a new block every 50 ids. Writes are
+ * flushed before counting, and the persistence context starts empty, as it would in a real request.
+ * Runs against the configured database; all changes are rolled back.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hcc.SqlStatementCounter")
+@AutoConfigureMockMvc
+@Transactional
+public class IdentityLookupCountTest {
+    private static final String SEQUENCE_CALL = "nextval";
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private User learner;
+    private User reviewer;
+    private Assignment assignment;
+
+    @BeforeEach
+    public void setup() {
+        learner = saveUser(AuthorityEnum.ROLE_LEARNER);
+        reviewer = saveUser(AuthorityEnum.ROLE_REVIEWER);
+        assignment = assignmentRepository.save(new Assignment(AssignmentStatusEnum.SUBMITTED, 1,
+                "github.com", "branch", null, learner, null));
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    public void getAssignmentsByUser_learner_twoStatements() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(learner)))
+                .andExpect(status().isOk());
+
+        //user lookup, dashboard summaries
+        assertEquals(2, statements());
+    }
+
+    @Test
+    public void getAssignmentsByUser_reviewer_twoStatements() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(reviewer)))
+                .andExpect(status().isOk());
+
+        //user lookup, dashboard summaries
+        assertEquals(2, statements());
+    }
+
+    @Test
+    public void getAssignmentById_twoStatements() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments/{id}", assignment.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(learner)))
+                .andExpect(status().isOk());
+
+        //user lookup, assignment with its users
+        assertEquals(2, statements());
+    }
+
+    @Test
+    public void putAssignment_threeStatements() throws Exception {
+        AssignmentDto update = new AssignmentDto();
+        update.setStatus(AssignmentStatusEnum.IN_REVIEW.getStatus());
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .put("/api/assignments/{id}", assignment.getId())
+                        .header(HttpHeaders.AUTHORIZATION, bearer(reviewer))
+                        .content(objectMapper.writeValueAsString(update))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+
+        //user lookup, conditional update, assignment with its users
+        assertEquals(3, statements());
+    }
+
+    @Test
+    public void createAssignment_twoStatements() throws Exception {
+        AssignmentCreateDto create = new AssignmentCreateDto();
+        create.setNumber(2);
+        create.setGithubUrl("github.com");
+        create.setBranch("branch");
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/assignments")
+                        .header(HttpHeaders.AUTHORIZATION, bearer(learner))
+                        .content(objectMapper.writeValueAsString(create))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated());
+
+        //user lookup, insert
+        assertEquals(2, statements());
+    }
+
+    @Test
+    public void validateToken_oneStatement() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/auth/validate")
+                        .header(HttpHeaders.AUTHORIZATION, jwtUtil.generateToken(learner)))
+                .andExpect(status().isOk());
+
+        //user lookup
+        assertEquals(1, statements());
+    }
+
+    private long statements() {
+        entityManager.flush();
+        return SqlStatementCounter.count() - SqlStatementCounter.count(SEQUENCE_CALL);
+    }
+
+    private User saveUser(AuthorityEnum role) {
+        List<Authority> authorities = new ArrayList<>();
+        User user = new User(LocalDate.now(), role.name() + "-" + UUID.randomUUID(), "password", authorities);
+        Authority authority = new Authority(role.name());
+        authority.setUser(user);
+        authorities.add(authority);
+        return userRepository.save(user);
+    }
+
+    private String bearer(User user) {
+        return "Bearer " + jwtUtil.generateToken(user);
+    }
+}
@@ -8,6 +8,7 @@ import com.hcc.entities.User;
 import com.hcc.enums.AuthorityEnum;
 import com.hcc.repositories.UserRepository;
 import com.hcc.services.LoginService;
+import com.hcc.services.RefreshTokenService;
 import com.hcc.services.UserDetailServiceImpl;
 import com.hcc.utils.JwtUtil;
 import org.junit.jupiter.api.Test;
@@ -15,6 +16,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -23,13 +25,17 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
+import javax.servlet.http.Cookie;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
+import static org.hamcrest.Matchers.containsString;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -48,6 +54,8 @@ public class LoginControllerTest {
     private UserDetailServiceImpl userDetailService;
     @MockBean
     private UserRepository userRepo;
+    @MockBean
+    private RefreshTokenService refreshTokenService;
 
     @Test
     void contextLoads() {}
@@ -158,4 +166,38 @@ public class LoginControllerTest {
         verify(loginService).validateToken(token);
     }
 
+    @Test
+    public void refresh_validCookie_returnsNewTokenAndRotatesCookie() throws Exception {
+        when(refreshTokenService.rotate("oldRefresh")).thenReturn(new AuthCredentialResponse("newToken", "newRefresh"));
+        when(refreshTokenService.getValidity()).thenReturn(Duration.ofDays(14));
+
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/auth/refresh")
+                        .cookie(new Cookie("refresh_token", "oldRefresh")))
+                .andExpect(status().isOk())
+                .andExpect(content().string("newToken"))
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, containsString("refresh_token=newRefresh")))
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, containsString("HttpOnly")));
+    }
+
+    @Test
+    public void refresh_noCookie_returnsUnauthorized() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/auth/refresh"))
+                .andExpect(status().isUnauthorized());
+
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    public void logout_tokens_revokesAndClearsCookie() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/auth/logout")
+                        .header("Authorization", "Bearer token")
+                        .cookie(new Cookie("refresh_token", "refresh")))
+                .andExpect(status().isNoContent())
+                .andExpect(header().string(HttpHeaders.SET_COOKIE, containsString("Max-Age=0")));
+
+        verify(loginService).logout("Bearer token", "refresh");
+    }
 }
@@ -0,0 +1,213 @@
+package com.hcc.controllers;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hcc.dtos.AuthCredentialRequest;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.repositories.UserRepository;
+import com.hcc.utils.CustomPasswordEncoder;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends 1k bad logins per second while real users log in: from a handful of addresses, checking that the bad logins
+ * are shed with 429 while the real ones keep their latency, and spread over many addresses with a new username each
+ * time, checking that no real user is throttled for attempts on other usernames. Not transactional: logins read
+ * committed users, which are deleted again afterwards.
+ */
+@Tag("slow")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class LoginThrottleLoadTest {
+    private static final int USERS = 40;
+    private static final int ATTACKERS = 10;
+    private static final int ATTACK_RATE_PER_ATTACKER = 100;
+    private static final int STUFFING_ADDRESSES = 4000;
+    //long enough for 1k attempts per second to use up the attempts of every username, were usernames to share buckets
+    private static final int STUFFING_SECONDS = 40;
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private final Logger log = LogManager.getLogger(LoginThrottleLoadTest.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private CustomPasswordEncoder customPasswordEncoder;
+
+    private List<User> users;
+
+    @BeforeEach
+    public void setup() {
+        String hash = customPasswordEncoder.getPasswordEncoder().encode(PASSWORD);
+        users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            List<Authority> authorities = new ArrayList<>();
+            User user = new User(null, "throttle-user-" + UUID.randomUUID(), hash, authorities);
+            Authority authority = new Authority(AuthorityEnum.ROLE_LEARNER.name());
+            authority.setUser(user);
+            authorities.add(authority);
+            users.add(user);
+        }
+        users = userRepository.saveAll(users);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        userRepository.deleteAll(users);
+    }
+
+    @Test
+    public void login_1kBadLoginsPerSecond_shedWhileRealLoginsKeepLatency() throws Exception {
+        //GIVEN
+        long[] baseline = loginAll(users.subList(0, USERS / 2), 0);
+        AtomicBoolean attacking = new AtomicBoolean(true);
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        ExecutorService attackers = attack(a -> "10.0.0." + (a + 1), attacking, sent, shed);
+
+        //WHEN
+        TimeUnit.SECONDS.sleep(1);
+        long attackStart = System.nanoTime();
+        long[] underAttack = loginAll(users.subList(USERS / 2, USERS), USERS / 2);
+        TimeUnit.SECONDS.sleep(1);
+        double attackSeconds = stop(attackers, attacking, attackStart) + 1;
+
+        //THEN
+        long baselineMedian = median(baseline);
+        long underAttackMedian = median(underAttack);
+        log.info("Sent {} bad logins in {}s, {} shed; real login median {}ms before, {}ms during the attack",
+                sent.get(), Math.round(attackSeconds), shed.get(), baselineMedian / 1_000_000,
+                underAttackMedian / 1_000_000);
+        assertTrue(sent.get() >= 0.8 * ATTACKERS * ATTACK_RATE_PER_ATTACKER * attackSeconds,
+                "only " + sent.get() + " bad logins sent");
+        assertTrue(shed.get() >= 0.9 * sent.get(), shed.get() + " of " + sent.get() + " bad logins shed");
+        assertTrue(underAttackMedian <= 2 * baselineMedian + TimeUnit.MILLISECONDS.toNanos(20),
+                "median " + underAttackMedian / 1_000_000 + "ms, before " + baselineMedian / 1_000_000 + "ms");
+    }
+
+    @Test
+    public void login_1kBadLoginsPerSecondFromManyAddresses_realUsersNotThrottled() throws Exception {
+        //GIVEN
+        AtomicBoolean attacking = new AtomicBoolean(true);
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger shed = new AtomicInteger();
+        //each address is used about once every 4 seconds, so the address buckets never run out
+        ExecutorService attackers = attack(a -> {
+            int address = ThreadLocalRandom.current().nextInt(STUFFING_ADDRESSES);
+            return "10.1." + address / 250 + "." + (address % 250 + 1);
+        }, attacking, sent, shed);
+
+        //WHEN
+        long attackStart = System.nanoTime();
+        TimeUnit.SECONDS.sleep(STUFFING_SECONDS);
+        long[] underAttack = loginAll(users, 0);
+        double attackSeconds = stop(attackers, attacking, attackStart);
+
+        //THEN
+        log.info("Sent {} bad logins from {} addresses in {}s, {} throttled; real login median {}ms",
+                sent.get(), STUFFING_ADDRESSES, Math.round(attackSeconds), shed.get(),
+                median(underAttack) / 1_000_000);
+        assertTrue(sent.get() >= 0.8 * ATTACKERS * ATTACK_RATE_PER_ATTACKER * attackSeconds,
+                "only " + sent.get() + " bad logins sent");
+        assertEquals(0, shed.get());
+    }
+
+    //sends bad logins with a new username each time at ATTACK_RATE_PER_ATTACKER from each of ATTACKERS threads,
+    //taking the address of each login from the attacker index, until attacking is cleared
+    private ExecutorService attack(IntFunction<String> addresses, AtomicBoolean attacking, AtomicInteger sent,
+                                   AtomicInteger shed) {
+        ExecutorService attackers = Executors.newFixedThreadPool(ATTACKERS);
+        for (int a = 0; a < ATTACKERS; a++) {
+            int attacker = a;
+            attackers.submit(() -> {
+                long interval = TimeUnit.SECONDS.toNanos(1) / ATTACK_RATE_PER_ATTACKER;
+                long next = System.nanoTime();
+                while (attacking.get()) {
+                    int status = login("attacker-" + UUID.randomUUID(), "guess", addresses.apply(attacker));
+                    sent.incrementAndGet();
+                    if (status == 429) {
+                        shed.incrementAndGet();
+                    }
+                    next += interval;
+                    long sleep = next - System.nanoTime();
+                    if (sleep > 0) {
+                        TimeUnit.NANOSECONDS.sleep(sleep);
+                    }
+                }
+                return null;
+            });
+        }
+        return attackers;
+    }
+
+    //stops the attack and returns how many seconds it ran since start
+    private static double stop(ExecutorService attackers, AtomicBoolean attacking, long start)
+            throws InterruptedException {
+        attacking.set(false);
+        attackers.shutdown();
+        assertTrue(attackers.awaitTermination(10, TimeUnit.SECONDS));
+        return (System.nanoTime() - start) / 1e9;
+    }
+
+    //logs every user in once, each from their own address, and returns the latencies
+    private long[] loginAll(List<User> loggingIn, int firstAddress) throws Exception {
+        long[] nanos = new long[loggingIn.size()];
+        for (int i = 0; i < loggingIn.size(); i++) {
+            long start = System.nanoTime();
+            int status = login(loggingIn.get(i).getUsername(), PASSWORD, "192.168.0." + (firstAddress + i + 1));
+            nanos[i] = System.nanoTime() - start;
+            assertEquals(200, status);
+        }
+        return nanos;
+    }
+
+    private int login(String username, String password, String address) throws Exception {
+        AuthCredentialRequest request = new AuthCredentialRequest();
+        request.setUsername(username);
+        request.setPassword(password);
+        return mockMvc.perform(MockMvcRequestBuilders
+                        .post("/api/auth/login")
+                        .content(objectMapper.writeValueAsString(request))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .with(mockRequest -> {
+                            mockRequest.setRemoteAddr(address);
+                            return mockRequest;
+                        }))
+                .andReturn().getResponse().getStatus();
+    }
+
+    private static long median(long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+}
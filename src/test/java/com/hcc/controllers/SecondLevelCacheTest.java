@@ -0,0 +1,94 @@
+package com.hcc.controllers;
+
+import com.hcc.SqlStatementCounter;
+import com.hcc.entities.Assignment;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.repositories.AssignmentRepository;
+import com.hcc.repositories.UserRepository;
+import com.hcc.utils.JwtUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Checks that reads are served from the Hibernate second-level cache. Not transactional: entities only reach the
+ * shared cache once their transaction commits, so the data is committed and deleted again afterwards.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hcc.SqlStatementCounter")
+@AutoConfigureMockMvc
+public class SecondLevelCacheTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    private User learner;
+    private User reviewer;
+    private Assignment assignment;
+
+    @BeforeEach
+    public void setup() {
+        learner = saveUser(AuthorityEnum.ROLE_LEARNER);
+        reviewer = saveUser(AuthorityEnum.ROLE_REVIEWER);
+        assignment = assignmentRepository.save(new Assignment(AssignmentStatusEnum.IN_REVIEW, 1,
+                "github.com", "branch", null, learner, reviewer));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        assignmentRepository.delete(assignment);
+        userRepository.delete(learner);
+        userRepository.delete(reviewer);
+    }
+
+    @Test
+    public void getAssignmentById_repeated_issuesNoSql() throws Exception {
+        //GIVEN
+        getAssignment();
+        SqlStatementCounter.reset();
+
+        //WHEN
+        getAssignment();
+
+        //THEN
+        assertEquals(0, SqlStatementCounter.count(), String.join("\n", SqlStatementCounter.getStatements()));
+    }
+
+    private void getAssignment() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders
+                        .get("/api/assignments/{id}", assignment.getId())
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtUtil.generateToken(learner)))
+                .andExpect(status().isOk());
+    }
+
+    private User saveUser(AuthorityEnum role) {
+        List<Authority> authorities = new ArrayList<>();
+        User user = new User(LocalDate.now(), role.name() + "-" + UUID.randomUUID(), "password", authorities);
+        Authority authority = new Authority(role.name());
+        authority.setUser(user);
+        authorities.add(authority);
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,136 @@
+package com.hcc.repositories;
+
+import com.hcc.dtos.TimeInStatusDto;
+import com.hcc.entities.Assignment;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.services.AssignmentAnalyticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks that status changes are logged by the trigger and folded into the time-in-status histograms.
+ * Runs against the configured database; all changes are rolled back.
+ */
+@SpringBootTest
+@Transactional
+public class AssignmentAnalyticsRepositoryTest {
+    //a cohort no real learner belongs to, so the histograms only hold this test's transitions
+    private static final LocalDate COHORT = LocalDate.of(1970, 1, 5);
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private AssignmentAnalyticsRepository analyticsRepository;
+    @Autowired
+    private AssignmentAnalyticsService analyticsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User reviewer;
+    private Assignment assignment;
+
+    @BeforeEach
+    public void setup() {
+        User learner = saveUser(AuthorityEnum.ROLE_LEARNER);
+        reviewer = saveUser(AuthorityEnum.ROLE_REVIEWER);
+        assignment = assignmentRepository.save(new Assignment(AssignmentStatusEnum.SUBMITTED, 3,
+                "github.com", "branch", null, learner, null));
+        entityManager.flush();
+    }
+
+    @Test
+    public void statusChanges_loggedByTrigger() {
+        Assignment changes = new Assignment();
+        changes.setStatus(AssignmentStatusEnum.IN_REVIEW);
+        assignmentRepository.updateNonNullFields(assignment.getId(), null, changes);
+        //an update that leaves the status alone is not a transition
+        Assignment sameStatus = new Assignment();
+        sameStatus.setBranch("other-branch");
+        assignmentRepository.updateNonNullFields(assignment.getId(), null, sameStatus);
+
+        List<Integer> toStatuses = jdbcTemplate.queryForList("select to_status from assignment_status_events " +
+                "where assignment_id = ? order by event_id", Integer.class, assignment.getId());
+
+        assertEquals(List.of(AssignmentStatusEnum.SUBMITTED.getStep(), AssignmentStatusEnum.IN_REVIEW.getStep()),
+                toStatuses);
+    }
+
+    @Test
+    public void foldTimeInStatus_percentilesFromHistograms() {
+        long watermark = analyticsRepository.lockTimeInStatusWatermark();
+        Assignment changes = new Assignment();
+        changes.setStatus(AssignmentStatusEnum.IN_REVIEW);
+        assignmentRepository.updateNonNullFields(assignment.getId(), null, changes);
+        changes.setStatus(AssignmentStatusEnum.COMPLETED);
+        assignmentRepository.updateNonNullFields(assignment.getId(), null, changes);
+        //all three events are written within milliseconds; spread them out: 3000s submitted, 600s in review
+        jdbcTemplate.update("update assignment_status_events set changed_at = now() - interval '3600 seconds' " +
+                "where assignment_id = ? and to_status = ?", assignment.getId(),
+                AssignmentStatusEnum.SUBMITTED.getStep());
+        jdbcTemplate.update("update assignment_status_events set changed_at = now() - interval '600 seconds' " +
+                "where assignment_id = ? and to_status = ?", assignment.getId(),
+                AssignmentStatusEnum.IN_REVIEW.getStep());
+        //this transaction is still open, so only an explicit bound folds its events
+        long batchEnd = currentTxid() + 1;
+
+        analyticsRepository.foldTimeInStatus(watermark, batchEnd);
+        List<TimeInStatusDto> timeInStatus = analyticsService.getTimeInStatus(reviewer, COHORT, 3);
+
+        assertEquals(2, timeInStatus.size());
+        assertEquals(AssignmentStatusEnum.SUBMITTED.name(), timeInStatus.get(0).getStatus());
+        assertWithinTenPercent(3000, timeInStatus.get(0).getP50Seconds());
+        assertEquals(AssignmentStatusEnum.IN_REVIEW.name(), timeInStatus.get(1).getStatus());
+        assertWithinTenPercent(600, timeInStatus.get(1).getP99Seconds());
+        assertEquals(batchEnd, analyticsRepository.lockTimeInStatusWatermark());
+    }
+
+    @Test
+    public void findBatchEnd_openTransaction_notInBatch() {
+        long watermark = analyticsRepository.lockTimeInStatusWatermark();
+        Assignment changes = new Assignment();
+        changes.setStatus(AssignmentStatusEnum.IN_REVIEW);
+        assignmentRepository.updateNonNullFields(assignment.getId(), null, changes);
+
+        Long batchEnd = analyticsRepository.findBatchEnd(watermark, 10000);
+
+        //other transactions may have left events to fold, but never past this one, which has not committed
+        assertTrue(batchEnd == null || batchEnd <= currentTxid(), "batch ends at " + batchEnd);
+    }
+
+    private long currentTxid() {
+        return jdbcTemplate.queryForObject("select pg_current_xact_id()::text::int8", Long.class);
+    }
+
+    private static void assertWithinTenPercent(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 10, "expected about " + expected + " but was " + actual);
+    }
+
+    private User saveUser(AuthorityEnum role) {
+        List<Authority> authorities = new ArrayList<>();
+        User user = new User(COHORT, role.name() + "-" + UUID.randomUUID(), "password", authorities);
+        Authority authority = new Authority(role.name());
+        authority.setUser(user);
+        authorities.add(authority);
+        return userRepository.save(user);
+    }
+}
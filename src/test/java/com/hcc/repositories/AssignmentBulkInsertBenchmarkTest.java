@@ -0,0 +1,103 @@
+package com.hcc.repositories;
+
+import com.hcc.dtos.AssignmentCreateDto;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.services.AssignmentService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the insert rate of 10k Assignments created through POST /api/assignments/bulk (pooled sequence ids,
+ * JDBC batches rewritten into multi-row inserts) with one insert ... returning per row, which is what IDENTITY ids
+ * force Hibernate to issue. Needs the local Postgres; all changes are rolled back.
+ */
+@Tag("slow")
+@SpringBootTest
+@Transactional
+public class AssignmentBulkInsertBenchmarkTest {
+    private static final int ASSIGNMENTS = 10_000;
+    private static final int BULK_SIZE = 1_000;
+
+    private final Logger log = LogManager.getLogger(AssignmentBulkInsertBenchmarkTest.class);
+
+    @Autowired
+    private AssignmentService assignmentService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User learner;
+
+    @BeforeEach
+    public void setup() {
+        learner = new User();
+        learner.setUsername("bulk-learner");
+        learner.setPassword("password");
+        Authority authority = new Authority(AuthorityEnum.ROLE_LEARNER.name());
+        authority.setUser(learner);
+        learner.setAuthorities(List.of(authority));
+        userRepository.save(learner);
+        entityManager.flush();
+    }
+
+    @Test
+    public void createAssignments_10k_fasterThanRowByRow() {
+        //GIVEN
+        List<AssignmentCreateDto> bulk = new ArrayList<>();
+        for (int i = 0; i < BULK_SIZE; i++) {
+            AssignmentCreateDto dto = new AssignmentCreateDto();
+            dto.setNumber(1 + i % 14);
+            dto.setGithubUrl("github.com");
+            dto.setBranch("branch");
+            bulk.add(dto);
+        }
+
+        //WHEN
+        long rowByRowStart = System.nanoTime();
+        for (int i = 0; i < ASSIGNMENTS; i++) {
+            jdbcTemplate.queryForObject("insert into assignments (branch, github_url, number, status, user_id) " +
+                    "values ('branch', 'github.com', ?, ?, ?) returning assignment_id", Long.class,
+                    1 + i % 14, AssignmentStatusEnum.PENDING_SUBMISSION.getStep(), learner.getId());
+        }
+        double rowByRow = rowsPerSecond(System.nanoTime() - rowByRowStart);
+
+        long batchedStart = System.nanoTime();
+        for (int i = 0; i < ASSIGNMENTS / BULK_SIZE; i++) {
+            assignmentService.createAssignments(bulk, learner);
+            entityManager.flush();
+            entityManager.clear();
+        }
+        double batched = rowsPerSecond(System.nanoTime() - batchedStart);
+
+        //THEN
+        log.info("Inserted {} assignments: row by row {} rows/s, batched {} rows/s", ASSIGNMENTS,
+                Math.round(rowByRow), Math.round(batched));
+        assertEquals(2 * ASSIGNMENTS, jdbcTemplate.queryForObject(
+                "select count(*) from assignments where user_id = ?", Integer.class, learner.getId()));
+        assertTrue(batched > rowByRow, "batched " + batched + " rows/s, row by row " + rowByRow + " rows/s");
+    }
+
+    private static double rowsPerSecond(long nanos) {
+        return ASSIGNMENTS * 1e9 / nanos;
+    }
+}
@@ -0,0 +1,154 @@
+package com.hcc.repositories;
+
+import com.hcc.SqlStatementCounter;
+import com.hcc.enums.AssignmentStatusEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs EXPLAIN on the SQL of every AssignmentRepository list query against a seeded 1M-row assignments table and
+ * fails if any of them plans a sequential scan of it, or if the claim query stops using its partial index. Needs the local Postgres; all changes are rolled back.
+ */
+@Tag("slow")
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hcc.SqlStatementCounter")
+@Transactional
+public class AssignmentQueryPlanTest {
+    private static final int ASSIGNMENTS = 1_000_000;
+    private static final int LEARNERS = 10_000;
+    private static final int REVIEWERS = 1_000;
+    private static final String SEQ_SCAN = "Seq Scan on assignments";
+    private static final String SUBMITTED_INDEX = "idx_assignments_submitted";
+
+    private static final int SUBMITTED = AssignmentStatusEnum.SUBMITTED.getStep();
+    private static final int RESUBMITTED = AssignmentStatusEnum.RESUBMITTED.getStep();
+    private static final int COMPLETED = AssignmentStatusEnum.COMPLETED.getStep();
+    private static final List<AssignmentStatusEnum> CLAIMED =
+            List.of(AssignmentStatusEnum.RESUBMITTED, AssignmentStatusEnum.COMPLETED);
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private long learnerId;
+    private long reviewerId;
+
+    @BeforeEach
+    public void setup() {
+        jdbcTemplate.update("insert into users (date, password, username) " +
+                "select current_date, 'password', 'plan-learner-' || g from generate_series(1, ?) g", LEARNERS);
+        jdbcTemplate.update("insert into users (date, password, username) " +
+                "select current_date, 'password', 'plan-reviewer-' || g from generate_series(1, ?) g", REVIEWERS);
+        learnerId = jdbcTemplate.queryForObject(
+                "select min(user_id) from users where username like 'plan-learner-%'", Long.class);
+        reviewerId = jdbcTemplate.queryForObject(
+                "select min(user_id) from users where username like 'plan-reviewer-%'", Long.class);
+
+        //1% SUBMITTED and 1% PENDING_SUBMISSION (both unclaimed), 1% each IN_REVIEW, NEEDS_UPDATE and
+        //RESUBMITTED, the rest COMPLETED
+        jdbcTemplate.update("insert into assignments " +
+                "(branch, github_url, number, status, user_id, code_reviewer_id) " +
+                "select 'branch', 'github.com', 1 + g % 14, s.status, ? + g % ?, " +
+                "case when s.status in (1, 2) then null else ? + (g / 100) % ? end " +
+                "from generate_series(1, ?) g cross join lateral (select case g % 100 " +
+                "when 0 then 2 when 1 then 1 when 2 then 3 when 3 then 4 when 4 then 6 else 5 end as status) s",
+                learnerId, LEARNERS, reviewerId, REVIEWERS, ASSIGNMENTS);
+        jdbcTemplate.execute("analyze users");
+        jdbcTemplate.execute("analyze assignments");
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    public void findByUserId_usesIndex() {
+        assignmentRepository.findByUserId(learnerId);
+        assertNoSeqScan(learnerId);
+    }
+
+    @Test
+    public void findByCodeReviewerIdAndStatus_usesIndex() {
+        assignmentRepository.findByCodeReviewerIdAndStatus(reviewerId, AssignmentStatusEnum.RESUBMITTED);
+        assertNoSeqScan(reviewerId, RESUBMITTED);
+    }
+
+    @Test
+    public void findByStatus_submitted_usesIndex() {
+        assignmentRepository.findByStatus(AssignmentStatusEnum.SUBMITTED);
+        assertNoSeqScan(SUBMITTED);
+    }
+
+    @Test
+    public void findLearnerDashboard_usesIndex() {
+        assignmentRepository.findLearnerDashboard(learnerId);
+        assertNoSeqScan(learnerId);
+    }
+
+    @Test
+    public void findReviewerDashboard_usesIndex() {
+        assignmentRepository.findReviewerDashboard(reviewerId, AssignmentStatusEnum.SUBMITTED, CLAIMED);
+        assertNoSeqScan(SUBMITTED, reviewerId, RESUBMITTED, COMPLETED);
+    }
+
+    @Test
+    public void findLearnerPage_usesIndex() {
+        assignmentRepository.findLearnerPage(learnerId, 0L, PageRequest.of(0, 51));
+        assertNoSeqScan(learnerId, 0L, 51);
+    }
+
+    @Test
+    public void findReviewerDashboardPage_usesIndex() {
+        assignmentRepository.findReviewerDashboardPage(reviewerId, AssignmentStatusEnum.SUBMITTED, CLAIMED, 0L,
+                PageRequest.of(0, 51));
+        assertNoSeqScan(0L, SUBMITTED, reviewerId, RESUBMITTED, COMPLETED, 51);
+    }
+
+    @Test
+    public void lockOldestSubmitted_repeatedClaims_keepUsingPartialIndex() {
+        //past the 5 executions after which Postgres may switch a prepared statement to a generic plan
+        for (int i = 0; i < 6; i++) {
+            assignmentRepository.lockOldestSubmitted(10);
+        }
+        List<String> statements = SqlStatementCounter.getStatements();
+        String sql = statements.get(statements.size() - 1).replace("?", "$1");
+
+        jdbcTemplate.execute("prepare claim(int) as " + sql);
+        try {
+            for (int i = 0; i < 6; i++) {
+                assertUsesSubmittedIndex(sql, "explain execute claim(10)");
+            }
+            jdbcTemplate.execute("set local plan_cache_mode = force_generic_plan");
+            assertUsesSubmittedIndex(sql, "explain execute claim(10)");
+        } finally {
+            jdbcTemplate.execute("deallocate claim");
+        }
+    }
+
+    private void assertUsesSubmittedIndex(String sql, String explain) {
+        String plan = String.join("\n", jdbcTemplate.queryForList(explain, String.class));
+
+        assertTrue(plan.contains(SUBMITTED_INDEX), sql + "\n" + plan);
+    }
+
+    /**
+     * Explains the last statement the repository issued, binding the given values in the order its parameters
+     * appear in the SQL (statuses by their step, as stored).
+     */
+    private void assertNoSeqScan(Object... parameters) {
+        List<String> statements = SqlStatementCounter.getStatements();
+        String sql = statements.get(statements.size() - 1);
+        String plan = String.join("\n", jdbcTemplate.queryForList("explain " + sql, String.class, parameters));
+
+        assertFalse(plan.contains(SEQ_SCAN), sql + "\n" + plan);
+    }
+}
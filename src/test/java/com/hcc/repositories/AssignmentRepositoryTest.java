@@ -0,0 +1,163 @@
+package com.hcc.repositories;
+
+import com.hcc.SqlStatementCounter;
+import com.hcc.dtos.AssignmentSummaryDto;
+import com.hcc.entities.Assignment;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.mappers.AssignmentMapper;
+import com.hcc.services.AssignmentService;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Pins the number of statements the assignment list queries issue for a 500-assignment list spread over 50 learners.
+ * Runs against the configured database; all changes are rolled back.
+ */
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.hcc.SqlStatementCounter")
+@Transactional
+public class AssignmentRepositoryTest {
+    private static final int LEARNERS = 50;
+    private static final int ASSIGNMENTS_PER_LEARNER = 10;
+
+    @Autowired
+    private AssignmentRepository assignmentRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private AssignmentService assignmentService;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final AssignmentMapper mapper = Mappers.getMapper(AssignmentMapper.class);
+    private User firstLearner;
+    private User reviewer;
+
+    @BeforeEach
+    public void setup() {
+        reviewer = saveUser(AuthorityEnum.ROLE_REVIEWER);
+        List<Assignment> assignments = new ArrayList<>();
+        for (int i = 0; i < LEARNERS; i++) {
+            User learner = saveUser(AuthorityEnum.ROLE_LEARNER);
+            if (firstLearner == null) {
+                firstLearner = learner;
+            }
+            for (int number = 1; number <= ASSIGNMENTS_PER_LEARNER; number++) {
+                assignments.add(new Assignment(AssignmentStatusEnum.SUBMITTED, number, "github.com",
+                        "branch", null, learner, null));
+            }
+        }
+        assignmentRepository.saveAll(assignments);
+
+        //start from an empty persistence context so associations have to be loaded by the queries under test
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatementCounter.reset();
+    }
+
+    @Test
+    public void findByStatus_500Assignments_oneStatement() {
+        List<Assignment> assignments = assignmentRepository.findByStatus(AssignmentStatusEnum.SUBMITTED);
+        mapper.toDtoList(assignments).forEach(dto -> dto.getUser().getId());
+
+        assertTrue(assignments.size() >= LEARNERS * ASSIGNMENTS_PER_LEARNER);
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    @Test
+    public void findByUserId_oneStatement() {
+        List<Assignment> assignments = assignmentRepository.findByUserId(firstLearner.getId());
+        mapper.toDtoList(assignments).forEach(dto -> dto.getUser().getUsername());
+
+        assertEquals(ASSIGNMENTS_PER_LEARNER, assignments.size());
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    @Test
+    public void getAssignmentsByReviewer_500Assignments_oneStatement() {
+        List<AssignmentSummaryDto> summaries = assignmentService.getAssignmentsByReviewer(reviewer);
+
+        assertTrue(summaries.size() >= LEARNERS * ASSIGNMENTS_PER_LEARNER);
+        assertEquals(1, SqlStatementCounter.count());
+    }
+
+    @Test
+    public void findLearnerDashboard_projectsSummariesWithoutLoadingEntities() {
+        List<AssignmentSummaryDto> summaries = assignmentRepository.findLearnerDashboard(firstLearner.getId());
+
+        assertEquals(ASSIGNMENTS_PER_LEARNER, summaries.size());
+        assertEquals(AssignmentStatusEnum.SUBMITTED.name(), summaries.get(0).getStatus());
+        assertEquals(firstLearner.getUsername(), summaries.get(0).getLearnerName());
+        assertEquals(1, SqlStatementCounter.count());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    public void save_storesStatusStep() {
+        Number stored = (Number) entityManager
+                .createNativeQuery("select status from assignments where user_id = :learnerId")
+                .setParameter("learnerId", firstLearner.getId())
+                .setMaxResults(1)
+                .getSingleResult();
+
+        assertEquals(AssignmentStatusEnum.SUBMITTED.getStep(), stored.intValue());
+    }
+
+    @Test
+    public void updateNonNullFields_checksVersionInOneStatement() {
+        Long id = assignmentRepository.findLearnerDashboard(firstLearner.getId()).get(0).getId();
+        Assignment changes = new Assignment();
+        changes.setStatus(AssignmentStatusEnum.IN_REVIEW);
+        changes.setCodeReviewer(reviewer);
+        SqlStatementCounter.reset();
+
+        int stale = assignmentRepository.updateNonNullFields(id, 7L, changes);
+        int current = assignmentRepository.updateNonNullFields(id, 0L, changes);
+
+        assertEquals(0, stale);
+        assertEquals(1, current);
+        assertEquals(2, SqlStatementCounter.count());
+        Assignment updated = assignmentRepository.findById(id).orElseThrow();
+        assertEquals(AssignmentStatusEnum.IN_REVIEW, updated.getStatus());
+        assertEquals(reviewer.getId(), updated.getCodeReviewer().getId());
+        assertEquals("branch", updated.getBranch());
+        assertEquals(1L, updated.getVersion());
+    }
+
+    @Test
+    public void claimNextAssignments_claimsOldestSubmitted() {
+        List<AssignmentSummaryDto> claimed = assignmentService.claimNextAssignments(reviewer, 3);
+
+        assertEquals(3, claimed.size());
+        claimed.forEach(summary -> {
+            assertEquals(AssignmentStatusEnum.IN_REVIEW.name(), summary.getStatus());
+            assertEquals(reviewer.getId(), summary.getReviewerId());
+        });
+    }
+
+    private User saveUser(AuthorityEnum role) {
+        List<Authority> authorities = new ArrayList<>();
+        User user = new User(LocalDate.now(), role.name() + "-" + UUID.randomUUID(), "password", authorities);
+        Authority authority = new Authority(role.name());
+        authority.setUser(user);
+        authorities.add(authority);
+        return userRepository.save(user);
+    }
+}
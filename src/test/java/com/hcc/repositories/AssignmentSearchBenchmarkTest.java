@@ -0,0 +1,110 @@
+package com.hcc.repositories;
+
+import com.hcc.dtos.AssignmentPageDto;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.services.AssignmentService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures GET /api/assignments/search against a seeded 1M-row assignments table: fragments of repository names and
+ * branches must be found through the trigram indexes with a p99 under 10ms. Needs the local Postgres; all changes
+ * are rolled back.
+ */
+@Tag("slow")
+@SpringBootTest
+@Transactional
+public class AssignmentSearchBenchmarkTest {
+    private static final int ASSIGNMENTS = 1_000_000;
+    private static final int LEARNERS = 10_000;
+    private static final int WARM_UP = 50;
+    private static final int SEARCHES = 1_000;
+    private static final long P99_LIMIT_NANOS = 10_000_000;
+
+    private final Logger log = LogManager.getLogger(AssignmentSearchBenchmarkTest.class);
+
+    @Autowired
+    private AssignmentService assignmentService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private User reviewer;
+
+    @BeforeEach
+    public void setup() {
+        reviewer = new User();
+        reviewer.setUsername("search-reviewer");
+        reviewer.setPassword("password");
+        Authority authority = new Authority(AuthorityEnum.ROLE_REVIEWER.name());
+        authority.setUser(reviewer);
+        reviewer.setAuthorities(List.of(authority));
+        userRepository.save(reviewer);
+        entityManager.flush();
+
+        jdbcTemplate.update("insert into users (date, password, username) " +
+                "select current_date, 'password', 'search-learner-' || g from generate_series(1, ?) g", LEARNERS);
+        Long learnerId = jdbcTemplate.queryForObject(
+                "select min(user_id) from users where username like 'search-learner-%'", Long.class);
+        //one repository per assignment under its learner's account, and a branch named after a hash
+        jdbcTemplate.update("insert into assignments (branch, github_url, number, status, user_id) " +
+                "select 'feature/' || md5(g::text), " +
+                "'https://github.com/search-learner-' || g % ? || '/project-' || g, 1 + g % 14, 5, ? + g % ? " +
+                "from generate_series(1, ?) g", LEARNERS, learnerId, LEARNERS, ASSIGNMENTS);
+        jdbcTemplate.execute("analyze users");
+        jdbcTemplate.execute("analyze assignments");
+    }
+
+    @Test
+    public void searchAssignments_1M_p99Under10ms() {
+        //GIVEN
+        Random random = new Random(42);
+        long[] nanos = new long[SEARCHES];
+
+        //WHEN
+        for (int i = -WARM_UP; i < SEARCHES; i++) {
+            int g = 1 + random.nextInt(ASSIGNMENTS);
+            String query = i % 2 == 0 ? "project-" + g : md5(g).substring(random.nextInt(24), 32);
+            long start = System.nanoTime();
+            AssignmentPageDto page = assignmentService.searchAssignments(reviewer, query, null, 20);
+            long elapsed = System.nanoTime() - start;
+            assertFalse(page.getAssignments().isEmpty(), "no match for " + query);
+            if (i >= 0) {
+                nanos[i] = elapsed;
+            }
+            entityManager.clear();
+        }
+
+        //THEN
+        Arrays.sort(nanos);
+        long p50 = nanos[SEARCHES / 2];
+        long p99 = nanos[(int) Math.ceil(SEARCHES * 0.99) - 1];
+        log.info("Searched {} assignments {} times: p50 {}us, p99 {}us", ASSIGNMENTS, SEARCHES, p50 / 1000,
+                p99 / 1000);
+        assertTrue(p99 < P99_LIMIT_NANOS, "p99 was " + p99 / 1000 + "us");
+    }
+
+    private String md5(int g) {
+        return jdbcTemplate.queryForObject("select md5(?::text)", String.class, String.valueOf(g));
+    }
+}
@@ -0,0 +1,69 @@
+package com.hcc.services;
+
+import com.hcc.dtos.AssignmentExportDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AssignmentExportServiceTest {
+    private AssignmentExportDto dto;
+
+    @BeforeEach
+    void setup() {
+        dto = new AssignmentExportDto();
+        dto.setId(10L);
+        dto.setNumber(1);
+        dto.setName("Assignment 1");
+        dto.setStatus("SUBMITTED");
+        dto.setLearnerId(123L);
+        dto.setLearnerName("learner");
+        dto.setCohortStartDate(LocalDate.of(2024, 1, 8));
+    }
+
+    @Test
+    public void toCsvRow_plainValues_writtenAsIs() {
+        //GIVEN
+        dto.setGithubUrl("https://github.com/learner/repo");
+        dto.setBranch("main");
+
+        //WHEN
+        String row = AssignmentExportService.toCsvRow(dto);
+
+        //THEN
+        assertEquals("10,1,Assignment 1,SUBMITTED,https://github.com/learner/repo,main,,123,learner,2024-01-08,,",
+                row);
+    }
+
+    @Test
+    public void toCsvRow_separatorsAndQuotes_quoted() {
+        //GIVEN
+        dto.setGithubUrl("github.com/a,b");
+        dto.setBranch("say \"hi\"");
+
+        //WHEN
+        String row = AssignmentExportService.toCsvRow(dto);
+
+        //THEN
+        assertEquals("10,1,Assignment 1,SUBMITTED,\"github.com/a,b\",\"say \"\"hi\"\"\",,123,learner,2024-01-08,,",
+                row);
+    }
+
+    @Test
+    public void toCsvRow_formulaPrefixes_neutralized() {
+        //GIVEN
+        dto.setGithubUrl("=HYPERLINK(\"http://evil\",\"x\")");
+        dto.setBranch("+1");
+        dto.setReviewVideoUrl("-2");
+        dto.setReviewerName("@SUM(A1)");
+
+        //WHEN
+        String row = AssignmentExportService.toCsvRow(dto);
+
+        //THEN
+        assertEquals("10,1,Assignment 1,SUBMITTED,\"'=HYPERLINK(\"\"http://evil\"\",\"\"x\"\")\",'+1,'-2,123," +
+                "learner,2024-01-08,,'@SUM(A1)", row);
+    }
+}
@@ -2,12 +2,19 @@ package com.hcc.services;
 
 import com.hcc.dtos.AssignmentCreateDto;
 import com.hcc.dtos.AssignmentDto;
+import com.hcc.dtos.AssignmentPageDto;
+import com.hcc.dtos.AssignmentStatusCountDto;
+import com.hcc.dtos.AssignmentSummaryDto;
 import com.hcc.entities.Assignment;
 import com.hcc.entities.Authority;
 import com.hcc.entities.User;
 import com.hcc.enums.AssignmentStatusEnum;
 import com.hcc.enums.AuthorityEnum;
+import com.hcc.events.AssignmentChangedEvent;
+import com.hcc.exceptions.AssignmentConflictException;
+import com.hcc.exceptions.BadRequestException;
 import com.hcc.exceptions.ResourceNotFoundException;
+import com.hcc.exceptions.UnauthorizedAccessException;
 import com.hcc.mappers.AssignmentMapper;
 import com.hcc.repositories.AssignmentRepository;
 import com.hcc.repositories.UserRepository;
@@ -17,13 +24,24 @@ import org.mapstruct.factory.Mappers;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mockito.MockitoAnnotations.initMocks;
@@ -33,6 +51,8 @@ public class AssignmentServiceTest {
     private AssignmentRepository assignmentRepo;
     @Mock
     private UserRepository userRepo;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private AssignmentService service;
@@ -54,40 +74,213 @@ public class AssignmentServiceTest {
     @Test
     public void getAssignmentsByLearner_successful() {
         //GIVEN
-        List<Assignment> assignments = initializeAssignmentList();
-        List<AssignmentDto> expected = mapper.toDtoList(assignments);
+        List<AssignmentSummaryDto> expected = toSummaries(initializeAssignmentList());
         Long userId = learner.getId();
 
-        when(assignmentRepo.findByUserId(userId)).thenReturn(assignments);
+        when(assignmentRepo.findLearnerDashboard(userId)).thenReturn(expected);
         //WHEN
-        List<AssignmentDto> actual = service.getAssignmentsByLearner(learner);
+        List<AssignmentSummaryDto> actual = service.getAssignmentsByLearner(learner);
 
         //THEN
         assertEquals(expected, actual);
+        verify(assignmentRepo, never()).findByUserId(userId);
     }
 
 
     @Test
     public void getAssignmentsByLearner_noAssignments(){
         //GIVEN
-        List<AssignmentDto> expected = mapper.toDtoList(new ArrayList<>());
         Long userId = learner.getId();
 
-        when(assignmentRepo.findByUserId(userId)).thenReturn(new ArrayList<>());
+        when(assignmentRepo.findLearnerDashboard(userId)).thenReturn(new ArrayList<>());
         //WHEN
-        List<AssignmentDto> actual = service.getAssignmentsByLearner(learner);
+        List<AssignmentSummaryDto> actual = service.getAssignmentsByLearner(learner);
+
+        //THEN
+        assertTrue(actual.isEmpty());
+    }
+
+
+    @Test
+    public void getAssignmentsByReviewer_singleQuery_returnsList() {
+        //GIVEN
+        reviewer.setId(234L);
+        List<AssignmentSummaryDto> expected = toSummaries(initializeAssignmentList());
+
+        when(assignmentRepo.findReviewerDashboard(234L, AssignmentStatusEnum.SUBMITTED,
+                List.of(AssignmentStatusEnum.RESUBMITTED, AssignmentStatusEnum.COMPLETED)))
+                .thenReturn(expected);
+        //WHEN
+        List<AssignmentSummaryDto> actual = service.getAssignmentsByReviewer(reviewer);
 
         //THEN
         assertEquals(expected, actual);
+        verify(assignmentRepo, never()).findByStatus(AssignmentStatusEnum.SUBMITTED);
+    }
+
+    @Test
+    public void getAssignmentCountsByReviewer_groupedCounts_zeroFillsOtherStatuses() {
+        //GIVEN
+        reviewer.setId(234L);
+        when(assignmentRepo.countReviewerDashboard(234L, AssignmentStatusEnum.SUBMITTED,
+                List.of(AssignmentStatusEnum.RESUBMITTED, AssignmentStatusEnum.COMPLETED)))
+                .thenReturn(List.of(new AssignmentStatusCountDto(AssignmentStatusEnum.SUBMITTED, 4L),
+                        new AssignmentStatusCountDto(AssignmentStatusEnum.COMPLETED, 2L)));
+        //WHEN
+        Map<String, Long> actual = service.getAssignmentCountsByReviewer(reviewer);
+
+        //THEN
+        assertEquals(List.of("PENDING_SUBMISSION", "SUBMITTED", "IN_REVIEW", "NEEDS_UPDATE", "COMPLETED",
+                "RESUBMITTED"), List.copyOf(actual.keySet()));
+        assertEquals(4L, actual.get("SUBMITTED"));
+        assertEquals(2L, actual.get("COMPLETED"));
+        assertEquals(0L, actual.get("RESUBMITTED"));
+        verify(assignmentRepo, never()).findReviewerDashboard(any(), any(), any());
+    }
+
+    @Test
+    public void getAssignmentCountsByLearner_rowsWithoutStatus_notCounted() {
+        //GIVEN
+        when(assignmentRepo.countLearnerDashboard(learner.getId()))
+                .thenReturn(List.of(new AssignmentStatusCountDto(null, 3L),
+                        new AssignmentStatusCountDto(AssignmentStatusEnum.NEEDS_UPDATE, 1L)));
+        //WHEN
+        Map<String, Long> actual = service.getAssignmentCountsByLearner(learner);
+
+        //THEN
+        assertFalse(actual.containsKey(null));
+        assertEquals(AssignmentStatusEnum.values().length, actual.size());
+        assertEquals(1L, actual.get("NEEDS_UPDATE"));
+    }
+
+    @Test
+    public void getAssignmentPageByLearner_moreRowsThanLimit_returnsNextCursor() {
+        //GIVEN
+        List<Assignment> assignments = initializeAssignmentList();
+        for (int i = 0; i < assignments.size(); i++) {
+            assignments.get(i).setId(10L + i);
+        }
+        List<AssignmentSummaryDto> summaries = toSummaries(assignments);
+
+        when(assignmentRepo.findLearnerPage(learner.getId(), 0L, PageRequest.of(0, 3)))
+                .thenReturn(summaries.subList(0, 3));
+        when(assignmentRepo.findLearnerPage(learner.getId(), 11L, PageRequest.of(0, 3)))
+                .thenReturn(summaries.subList(2, 4));
+        //WHEN
+        AssignmentPageDto first = service.getAssignmentPageByLearner(learner, null, 2);
+        AssignmentPageDto second = service.getAssignmentPageByLearner(learner, first.getNextCursor(), 2);
+
+        //THEN
+        assertEquals(summaries.subList(0, 2), first.getAssignments());
+        assertNotNull(first.getNextCursor());
+        assertEquals(summaries.subList(2, 4), second.getAssignments());
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    public void getAssignmentPageByLearner_invalidCursor_throwsBadRequestException() {
+        assertThrows(BadRequestException.class, () -> service.getAssignmentPageByLearner(learner, "not a cursor", 2));
+        assertThrows(BadRequestException.class, () -> service.getAssignmentPageByLearner(learner, null, 0));
+    }
+
+    @Test
+    public void searchAssignments_reviewer_returnsRankedPage() {
+        //GIVEN
+        reviewer.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_REVIEWER.name())));
+        List<Assignment> assignments = initializeAssignmentList();
+        for (int i = 0; i < assignments.size(); i++) {
+            assignments.get(i).setId(10L + i);
+        }
+        List<AssignmentSummaryDto> summaries = toSummaries(assignments);
+
+        //ranked ids do not follow id order, and the summaries come back in id order
+        when(assignmentRepo.searchIds("fix_1%", "%fix\\_1\\%%", 3, 0L)).thenReturn(List.of(12L, 10L, 11L));
+        when(assignmentRepo.findSummariesByIds(List.of(12L, 10L))).thenReturn(summaries.subList(0, 3));
+        //WHEN
+        AssignmentPageDto page = service.searchAssignments(reviewer, " fix_1% ", null, 2);
+        //THEN
+        assertEquals(List.of(summaries.get(2), summaries.get(0)), page.getAssignments());
+        assertNotNull(page.getNextCursor());
+
+        service.searchAssignments(reviewer, " fix_1% ", page.getNextCursor(), 2);
+        verify(assignmentRepo).searchIds("fix_1%", "%fix\\_1\\%%", 3, 2L);
     }
 
+    @Test
+    public void searchAssignments_negativeOrKeysetCursor_throwsBadRequestException() {
+        reviewer.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_REVIEWER.name())));
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+
+        assertThrows(BadRequestException.class, () -> service.searchAssignments(reviewer, "fix",
+                encoder.encodeToString("search:-1".getBytes(StandardCharsets.UTF_8)), 2));
+        //a cursor of /page, or a bare number, is not a search cursor
+        assertThrows(BadRequestException.class, () -> service.searchAssignments(reviewer, "fix",
+                encoder.encodeToString("-1".getBytes(StandardCharsets.UTF_8)), 2));
+        assertThrows(BadRequestException.class, () -> service.searchAssignments(reviewer, "fix",
+                encoder.encodeToString("12".getBytes(StandardCharsets.UTF_8)), 2));
+        verify(assignmentRepo, never()).searchIds(any(), any(), anyInt(), anyLong());
+    }
+
+    @Test
+    public void searchAssignments_shortQueryOrLearner_throws() {
+        reviewer.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_REVIEWER.name())));
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+
+        assertThrows(BadRequestException.class, () -> service.searchAssignments(reviewer, "ab ", null, 2));
+        assertThrows(UnauthorizedAccessException.class, () -> service.searchAssignments(learner, "fix", null, 2));
+    }
+
+    @Test
+    public void claimNextAssignments_reviewer_claimsLockedRows() {
+        //GIVEN
+        reviewer.setId(234L);
+        reviewer.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_REVIEWER.name())));
+        User reviewerReference = new User();
+        List<AssignmentSummaryDto> expected = List.of(new AssignmentSummaryDto(10L, 1,
+                AssignmentStatusEnum.IN_REVIEW, 123L, "learner", 234L, "reviewer"));
+
+        when(assignmentRepo.lockOldestSubmitted(2)).thenReturn(List.of(10L));
+        when(userRepo.getReferenceById(234L)).thenReturn(reviewerReference);
+        when(assignmentRepo.findSummariesByIds(List.of(10L))).thenReturn(expected);
+        //WHEN
+        List<AssignmentSummaryDto> actual = service.claimNextAssignments(reviewer, 2);
+
+        //THEN
+        verify(assignmentRepo).claim(List.of(10L), reviewerReference, AssignmentStatusEnum.IN_REVIEW);
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void claimNextAssignments_nothingSubmitted_returnsEmptyList() {
+        //GIVEN
+        reviewer.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_REVIEWER.name())));
+        when(assignmentRepo.lockOldestSubmitted(1)).thenReturn(List.of());
+
+        //WHEN
+        List<AssignmentSummaryDto> actual = service.claimNextAssignments(reviewer, 1);
+
+        //THEN
+        assertTrue(actual.isEmpty());
+        verify(assignmentRepo, never()).claim(any(), any(), any());
+    }
+
+    @Test
+    public void claimNextAssignments_learner_throwsUnauthorizedAccessException() {
+        //GIVEN
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+
+        //WHEN
+        //THEN
+        assertThrows(UnauthorizedAccessException.class, () -> service.claimNextAssignments(learner, 1));
+        verify(assignmentRepo, never()).lockOldestSubmitted(anyInt());
+    }
 
     @Test
     public void getAssignmentById_successful() {
-        Assignment assignment = new Assignment(AssignmentStatusEnum.IN_REVIEW.getStatus(), 3, "github.com", "branch",
+        Assignment assignment = new Assignment(AssignmentStatusEnum.IN_REVIEW, 3, "github.com", "branch",
                 null, learner, null);
         assignment.setId(456L);
-        Assignment updatedAssignment = new Assignment(AssignmentStatusEnum.COMPLETED.getStatus(), 5, "bithub.com",
+        Assignment updatedAssignment = new Assignment(AssignmentStatusEnum.COMPLETED, 5, "bithub.com",
                 "branch1",
                 "review.com", learner, reviewer);
         updatedAssignment.setId(456L);
@@ -121,28 +314,30 @@ public class AssignmentServiceTest {
         reviewerAuth.add(new Authority(AuthorityEnum.ROLE_REVIEWER.name()));
         reviewer.setAuthorities(reviewerAuth);
 
-        Assignment assignment = new Assignment(AssignmentStatusEnum.IN_REVIEW.getStatus(), 3, "github.com", "branch",
-                null, learner, reviewer);
-        assignment.setId(456L);
-
         AssignmentDto updatedAssignment = new AssignmentDto();
         updatedAssignment.setStatus(AssignmentStatusEnum.COMPLETED.getStatus());
         updatedAssignment.setReviewVideoUrl("review.com");
+        updatedAssignment.setBranch("ignored for reviewers");
 
-        Assignment expected = new Assignment(AssignmentStatusEnum.COMPLETED.getStatus(), 3, "github.com", "branch",
+        Assignment expected = new Assignment(AssignmentStatusEnum.COMPLETED, 3, "github.com", "branch",
                 "review.com", learner, reviewer);
         expected.setId(456L);
         AssignmentDto expectedDto = mapper.toDto(expected);
 
-
-        when(assignmentRepo.findById(456L)).thenReturn(Optional.of(assignment));
+        ArgumentCaptor<Assignment> changesCaptor = ArgumentCaptor.forClass(Assignment.class);
+        when(assignmentRepo.updateNonNullFields(eq(456L), isNull(), changesCaptor.capture())).thenReturn(1);
+        when(assignmentRepo.findById(456L)).thenReturn(Optional.of(expected));
 
         //WHEN
         AssignmentDto actual = service.updateAssignmentById(updatedAssignment, 456L, reviewer);
 
         //THEN
-        ArgumentCaptor<Assignment> assignmentCaptor = ArgumentCaptor.forClass(Assignment.class);
-        verify(assignmentRepo).save(assignmentCaptor.capture());
+        Assignment changes = changesCaptor.getValue();
+        assertEquals(AssignmentStatusEnum.COMPLETED, changes.getStatus());
+        assertEquals("review.com", changes.getReviewVideoUrl());
+        assertNull(changes.getBranch());
+        verify(assignmentRepo, never()).save(any());
+        verify(eventPublisher).publishEvent(new AssignmentChangedEvent(mapper.toSummary(expected)));
         assertEquals(expectedDto, actual);
     }
 
@@ -154,29 +349,66 @@ public class AssignmentServiceTest {
         learnerAuth.add(new Authority(AuthorityEnum.ROLE_LEARNER.name()));
         learner.setAuthorities(learnerAuth);
 
-        Assignment assignment = new Assignment(AssignmentStatusEnum.NEEDS_UPDATE.getStatus(), 3, null, "branch",
-                null, learner, reviewer);
-        assignment.setId(456L);
-
         AssignmentDto updatedAssignment = new AssignmentDto();
         updatedAssignment.setBranch("branch1");
         updatedAssignment.setStatus(AssignmentStatusEnum.RESUBMITTED.getStatus());
         updatedAssignment.setGithubUrl("github.com");
+        updatedAssignment.setReviewVideoUrl("ignored for learners");
+        updatedAssignment.setVersion(2L);
 
-        Assignment expected = new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 3, "github.com",
+        Assignment expected = new Assignment(AssignmentStatusEnum.RESUBMITTED, 3, "github.com",
                 "branch1", null, learner, reviewer);
         expected.setId(456L);
+        expected.setVersion(3L);
         AssignmentDto expectedDto = mapper.toDto(expected);
 
-        when(assignmentRepo.findById(456L)).thenReturn(Optional.of(assignment));
+        ArgumentCaptor<Assignment> changesCaptor = ArgumentCaptor.forClass(Assignment.class);
+        when(assignmentRepo.updateNonNullFields(eq(456L), eq(2L), changesCaptor.capture())).thenReturn(1);
+        when(assignmentRepo.findById(456L)).thenReturn(Optional.of(expected));
 
         //WHEN
         AssignmentDto actual = service.updateAssignmentById(updatedAssignment, 456L, learner);
 
         //THEN
-        ArgumentCaptor<Assignment> assignmentCaptor = ArgumentCaptor.forClass(Assignment.class);
-        verify(assignmentRepo).save(assignmentCaptor.capture());
+        Assignment changes = changesCaptor.getValue();
+        assertEquals(AssignmentStatusEnum.RESUBMITTED, changes.getStatus());
+        assertEquals("branch1", changes.getBranch());
+        assertNull(changes.getReviewVideoUrl());
         assertEquals(expectedDto, actual);
+        assertEquals(3L, actual.getVersion());
+    }
+
+    @Test
+    public void updateAssignmentById_staleVersion_throwsAssignmentConflictException() {
+        //GIVEN
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+        AssignmentDto updatedAssignment = new AssignmentDto();
+        updatedAssignment.setBranch("branch1");
+        updatedAssignment.setVersion(2L);
+
+        when(assignmentRepo.updateNonNullFields(eq(456L), eq(2L), any())).thenReturn(0);
+        when(assignmentRepo.existsById(456L)).thenReturn(true);
+
+        //WHEN
+        //THEN
+        assertThrows(AssignmentConflictException.class,
+                () -> service.updateAssignmentById(updatedAssignment, 456L, learner));
+    }
+
+    @Test
+    public void updateAssignmentById_assignmentNotFound_throwsResourceNotFoundException() {
+        //GIVEN
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+        AssignmentDto updatedAssignment = new AssignmentDto();
+        updatedAssignment.setBranch("branch1");
+
+        when(assignmentRepo.updateNonNullFields(eq(456L), isNull(), any())).thenReturn(0);
+        when(assignmentRepo.existsById(456L)).thenReturn(false);
+
+        //WHEN
+        //THEN
+        assertThrows(ResourceNotFoundException.class,
+                () -> service.updateAssignmentById(updatedAssignment, 456L, learner));
     }
 
     @Test
@@ -190,7 +422,7 @@ public class AssignmentServiceTest {
         created.setBranch("branch");
         created.setGithubUrl("github.com");
 
-        Assignment expectedAssignment = new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION.getStatus(), 3, "github.com", "branch",
+        Assignment expectedAssignment = new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 3, "github.com", "branch",
                 null, learner, null);
 
         AssignmentDto expected = mapper.toDto(expectedAssignment);
@@ -201,6 +433,43 @@ public class AssignmentServiceTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void createAssignments_validAssignments_savesAllAtOnce() {
+        //GIVEN
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+        List<AssignmentCreateDto> created = new ArrayList<>();
+        for (int number = 1; number <= 3; number++) {
+            AssignmentCreateDto dto = new AssignmentCreateDto();
+            dto.setNumber(number);
+            dto.setBranch("branch");
+            dto.setGithubUrl("github.com");
+            created.add(dto);
+        }
+        List<Assignment> expectedAssignments = List.of(
+                new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 1, "github.com", "branch", null,
+                        learner, null),
+                new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 2, "github.com", "branch", null,
+                        learner, null),
+                new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 3, "github.com", "branch", null,
+                        learner, null));
+        List<AssignmentDto> expected = expectedAssignments.stream().map(mapper::toDto).collect(Collectors.toList());
+        //WHEN
+        List<AssignmentDto> actual = service.createAssignments(created, learner);
+        //THEN
+        verify(assignmentRepo).saveAll(expectedAssignments);
+        verify(assignmentRepo, never()).save(any());
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    public void createAssignments_empty_throwsBadRequest() {
+        //GIVEN
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+        //WHEN
+        //THEN
+        assertThrows(BadRequestException.class, () -> service.createAssignments(List.of(), learner));
+    }
+
 
     private List<Assignment> initializeAssignmentList() {
         //create links
@@ -209,21 +478,31 @@ public class AssignmentServiceTest {
         String reviewVideoUrl = "review.com";
 
         List<Assignment> assignments = new ArrayList<>();
-        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 1, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED, 1, github, branch,
                 reviewVideoUrl, learner, reviewer));
-        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 2, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED, 2, github, branch,
                 reviewVideoUrl, learner, null));
-        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED.getStatus(), 3, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.RESUBMITTED, 3, github, branch,
                 null, learner, learner));
-        assignments.add(new Assignment(AssignmentStatusEnum.NEEDS_UPDATE.getStatus(), 4, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.NEEDS_UPDATE, 4, github, branch,
                 null, learner, reviewer));
-        assignments.add(new Assignment(AssignmentStatusEnum.SUBMITTED.getStatus(), 5, github, branch,
+        assignments.add(new Assignment(AssignmentStatusEnum.SUBMITTED, 5, github, branch,
                 null, learner, null));
-        assignments.add(new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION.getStatus(), 6, null,
+        assignments.add(new Assignment(AssignmentStatusEnum.PENDING_SUBMISSION, 6, null,
                 null, null, learner, null));
-        assignments.add(new Assignment(AssignmentStatusEnum.COMPLETED.getStatus(), 6, github,
+        assignments.add(new Assignment(AssignmentStatusEnum.COMPLETED, 6, github,
                 branch, reviewVideoUrl, learner, reviewer));
 
         return assignments;
     }
+
+    private List<AssignmentSummaryDto> toSummaries(List<Assignment> assignments) {
+        return assignments.stream()
+                .map(a -> new AssignmentSummaryDto(a.getId(), a.getNumber(), a.getStatus(),
+                        a.getUser() == null ? null : a.getUser().getId(),
+                        a.getUser() == null ? null : a.getUser().getUsername(),
+                        a.getCodeReviewer() == null ? null : a.getCodeReviewer().getId(),
+                        a.getCodeReviewer() == null ? null : a.getCodeReviewer().getUsername()))
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,247 @@
+package com.hcc.services;
+
+import com.hcc.dtos.AssignmentChangeDto;
+import com.hcc.dtos.AssignmentSummaryDto;
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AssignmentStatusEnum;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.events.AssignmentChangedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AssignmentStreamServiceTest {
+    private AssignmentStreamService service;
+    private SimpleMeterRegistry meterRegistry;
+    private User learner;
+    private User reviewer;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new AssignmentStreamService();
+        ReflectionTestUtils.setField(service, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(service, "bufferSize", 1);
+        ReflectionTestUtils.setField(service, "timeoutMillis", 60_000L);
+        ReflectionTestUtils.setField(service, "dispatchThreads", 1);
+        ReflectionTestUtils.setField(service, "dispatchQueueSize", 16);
+        ReflectionTestUtils.setField(service, "writeTimeoutMillis", 60_000L);
+        service.init();
+
+        learner = new User();
+        learner.setId(123L);
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+        reviewer = new User();
+        reviewer.setId(234L);
+        reviewer.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_REVIEWER.name())));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    public void changeFor_learner_onlyOwnAssignments() {
+        //GIVEN
+        AssignmentStreamService.Subscriber subscriber = service.new Subscriber(learner, new SseEmitter(), 1);
+        AssignmentSummaryDto own = summary(AssignmentStatusEnum.PENDING_SUBMISSION, 123L, null);
+        AssignmentSummaryDto other = summary(AssignmentStatusEnum.SUBMITTED, 999L, null);
+
+        //WHEN
+        //THEN
+        assertEquals(AssignmentChangeDto.upsert(own), AssignmentStreamService.changeFor(subscriber, own));
+        assertNull(AssignmentStreamService.changeFor(subscriber, other));
+    }
+
+    @Test
+    public void changeFor_reviewer_followsDashboardRules() {
+        //GIVEN
+        AssignmentStreamService.Subscriber subscriber = service.new Subscriber(reviewer, new SseEmitter(), 1);
+        AssignmentSummaryDto submitted = summary(AssignmentStatusEnum.SUBMITTED, 123L, null);
+        AssignmentSummaryDto ownCompleted = summary(AssignmentStatusEnum.COMPLETED, 123L, 234L);
+        AssignmentSummaryDto claimedByOther = summary(AssignmentStatusEnum.IN_REVIEW, 123L, 999L);
+        AssignmentSummaryDto pending = summary(AssignmentStatusEnum.PENDING_SUBMISSION, 123L, null);
+
+        //WHEN
+        //THEN
+        assertEquals(AssignmentChangeDto.upsert(submitted), AssignmentStreamService.changeFor(subscriber, submitted));
+        assertEquals(AssignmentChangeDto.upsert(ownCompleted),
+                AssignmentStreamService.changeFor(subscriber, ownCompleted));
+        assertEquals(AssignmentChangeDto.remove(10L), AssignmentStreamService.changeFor(subscriber, claimedByOther));
+        assertNull(AssignmentStreamService.changeFor(subscriber, pending));
+    }
+
+    @Test
+    public void onAssignmentChanged_bufferFull_dropsSubscriber() throws Exception {
+        //GIVEN
+        service.subscribe(learner);
+        //keep the only dispatch thread busy so nothing is drained
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService dispatcher = (ExecutorService) ReflectionTestUtils.getField(service, "dispatcher");
+        dispatcher.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        AssignmentSummaryDto own = summary(AssignmentStatusEnum.SUBMITTED, 123L, null);
+
+        //WHEN
+        service.onAssignmentChanged(new AssignmentChangedEvent(own));
+        service.onAssignmentChanged(new AssignmentChangedEvent(own));
+        release.countDown();
+
+        //THEN
+        assertEquals(0, service.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.counter("assignments.stream.dropped").count());
+    }
+
+    @Test
+    public void sendHeartbeats_closedStream_dropsSubscriber() throws Exception {
+        //GIVEN
+        service.subscribe(learner);
+        SseEmitter closed = service.subscribe(reviewer);
+        closed.complete();
+
+        //WHEN
+        service.sendHeartbeats();
+        //the only dispatch thread runs tasks in order, so the heartbeats are done once this one runs
+        CountDownLatch done = new CountDownLatch(1);
+        ExecutorService dispatcher = (ExecutorService) ReflectionTestUtils.getField(service, "dispatcher");
+        dispatcher.execute(done::countDown);
+        done.await();
+
+        //THEN
+        assertEquals(1, service.getSubscriberCount());
+    }
+
+    @Test
+    public void onAssignmentChanged_stalledSubscribers_othersStillReceiveChanges() throws Exception {
+        //GIVEN
+        restart(3);
+        CountDownLatch release = new CountDownLatch(1);
+        StalledEmitter first = new StalledEmitter(release);
+        StalledEmitter second = new StalledEmitter(release);
+        RecordingEmitter healthy = new RecordingEmitter();
+        service.subscribe(reviewer(1L), first);
+        service.subscribe(reviewer(2L), second);
+        service.subscribe(reviewer(3L), healthy);
+        AssignmentSummaryDto submitted = summary(AssignmentStatusEnum.SUBMITTED, 123L, null);
+
+        //WHEN
+        service.onAssignmentChanged(new AssignmentChangedEvent(submitted));
+        //each stalled client now holds one thread, blocked in a write
+        first.writing.await();
+        second.writing.await();
+        service.onAssignmentChanged(new AssignmentChangedEvent(submitted));
+        ThreadPoolExecutor dispatcher = (ThreadPoolExecutor) ReflectionTestUtils.getField(service, "dispatcher");
+        long tasksBefore = dispatcher.getTaskCount();
+        service.sendHeartbeats();
+        long heartbeatTasks = dispatcher.getTaskCount() - tasksBefore;
+
+        //THEN
+        try {
+            assertNotNull(healthy.sent.poll(5, TimeUnit.SECONDS));
+            assertNotNull(healthy.sent.poll(5, TimeUnit.SECONDS));
+            //the stalled subscribers already have a task, so at most the healthy one got a heartbeat
+            assertTrue(heartbeatTasks <= 1, heartbeatTasks + " heartbeat tasks");
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void dropStalledSubscribers_writeBlockedTooLong_dropsOnlyThatSubscriber() throws Exception {
+        //GIVEN
+        restart(2);
+        ReflectionTestUtils.setField(service, "writeTimeoutMillis", 1L);
+        CountDownLatch release = new CountDownLatch(1);
+        StalledEmitter stalled = new StalledEmitter(release);
+        service.subscribe(reviewer(1L), stalled);
+        service.subscribe(reviewer(2L), new RecordingEmitter());
+        service.onAssignmentChanged(new AssignmentChangedEvent(summary(AssignmentStatusEnum.SUBMITTED, 123L, null)));
+        stalled.writing.await();
+        Thread.sleep(10);
+
+        //WHEN
+        try {
+            service.dropStalledSubscribers();
+        } finally {
+            release.countDown();
+        }
+
+        //THEN
+        assertEquals(1, service.getSubscriberCount());
+        assertEquals(1.0, meterRegistry.counter("assignments.stream.dropped").count());
+    }
+
+    private void restart(int dispatchThreads) {
+        service.shutdown();
+        ReflectionTestUtils.setField(service, "dispatchThreads", dispatchThreads);
+        service.init();
+    }
+
+    private User reviewer(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_REVIEWER.name())));
+        return user;
+    }
+
+    /**
+     * An emitter whose client has stopped reading: every write blocks until released.
+     */
+    private static class StalledEmitter extends SseEmitter {
+        private final CountDownLatch writing = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        StalledEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            writing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+        }
+    }
+
+    /**
+     * An emitter that records what is written to it.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<SseEventBuilder> sent = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sent.add(builder);
+        }
+    }
+
+    private AssignmentSummaryDto summary(AssignmentStatusEnum status, Long learnerId, Long reviewerId) {
+        return new AssignmentSummaryDto(10L, 1, status, learnerId, "learner", reviewerId,
+                reviewerId == null ? null : "reviewer");
+    }
+}
@@ -7,6 +7,7 @@ import com.hcc.entities.User;
 import com.hcc.enums.AuthorityEnum;
 import com.hcc.repositories.UserRepository;
 import com.hcc.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -17,10 +18,13 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Date;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.Callable;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.mockito.MockitoAnnotations.initMocks;
 
@@ -37,6 +41,14 @@ public class LoginServiceTest {
     private UserDetails userDetails;
     @Mock
     private UserRepository userRepo;
+    @Mock
+    private Claims claims;
+    @Mock
+    private PasswordVerificationExecutor passwordVerificationExecutor;
+    @Mock
+    private RefreshTokenService refreshTokenService;
+    @Mock
+    private TokenRevocationService tokenRevocationService;
 
     private AuthCredentialRequest request;
     private AuthCredentialResponse response;
@@ -55,6 +67,10 @@ public class LoginServiceTest {
         request.setPassword("password");
 
         response = new AuthCredentialResponse(token);
+
+        //verify on the calling thread
+        when(passwordVerificationExecutor.verify(any()))
+                .thenAnswer(invocation -> invocation.<Callable<?>>getArgument(0).call());
     }
 
     @Test
@@ -74,6 +90,26 @@ public class LoginServiceTest {
         assertEquals(expectedResponse, actualResponse);
     }
 
+    @Test
+    public void login_successfulLogin_issuesRefreshToken() {
+        //GIVEN
+        User learner = new User();
+        learner.setId(123L);
+        AuthCredentialResponse expectedResponse = new AuthCredentialResponse(token, "refresh");
+
+        when(auth.getPrincipal()).thenReturn(learner);
+        when(manager.authenticate(new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword())))
+                .thenReturn(auth);
+        when(jwtUtil.generateToken(learner)).thenReturn(token);
+        when(refreshTokenService.issue(learner)).thenReturn("refresh");
+
+        //WHEN
+        AuthCredentialResponse actualResponse = loginService.login(request);
+
+        //THEN
+        assertEquals(expectedResponse, actualResponse);
+    }
+
     @Test
     public void login_catchesAuthenticationException_returnsEmptyString() {
         //GIVEN
@@ -87,6 +123,19 @@ public class LoginServiceTest {
         assertEquals(expectedResponse, actualResponse);
     }
 
+    @Test
+    public void login_unknownUsername_failsWithoutVerifying() {
+        //GIVEN
+        AuthCredentialResponse expectedResponse = new AuthCredentialResponse("");
+        when(userDetailServiceImp.isUnknownUsername(request.getUsername())).thenReturn(true);
+        //WHEN
+        AuthCredentialResponse actualResponse = loginService.login(request);
+
+        //THEN
+        assertEquals(expectedResponse, actualResponse);
+        verifyNoInteractions(passwordVerificationExecutor, manager);
+    }
+
     @Test
     public void validateToken_isValid_returnsList() {
         //GIVEN
@@ -95,15 +144,65 @@ public class LoginServiceTest {
         User learner = new User();
         learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
 
-        when(jwtUtil.getUsernameFromToken(token)).thenReturn(username);
-        when(userDetailServiceImp.loadUserByUsername(username)).thenReturn(userDetails);
-        when(jwtUtil.validateToken(token, userDetails)).thenReturn(isValid);
-        when(userRepo.findByUsername(username)).thenReturn(Optional.of(learner));
+        when(claims.getSubject()).thenReturn(username);
+        when(jwtUtil.parseToken(token)).thenReturn(claims);
+        when(userDetailServiceImp.loadUserByUsername(username)).thenReturn(learner);
+        when(jwtUtil.validateToken(claims, learner)).thenReturn(isValid);
 
         //WHEN
         List<String> actual = loginService.validateToken(token);
 
         //THEN
         assertEquals("ROLE_LEARNER", actual.get(0));
+        verify(userDetailServiceImp, times(1)).loadUserByUsername(username);
+        verifyNoInteractions(userRepo);
+    }
+
+    @Test
+    public void validateToken_isNotValid_returnsEmptyList() {
+        //GIVEN
+        String username = "username";
+
+        when(claims.getSubject()).thenReturn(username);
+        when(jwtUtil.parseToken(token)).thenReturn(claims);
+        when(userDetailServiceImp.loadUserByUsername(username)).thenReturn(userDetails);
+        when(jwtUtil.validateToken(claims, userDetails)).thenReturn(false);
+
+        //WHEN
+        List<String> actual = loginService.validateToken(token);
+
+        //THEN
+        assertTrue(actual.isEmpty());
+    }
+
+    @Test
+    public void validateToken_revokedToken_returnsEmptyList() {
+        //GIVEN
+        when(jwtUtil.parseToken(token)).thenReturn(claims);
+        when(claims.getId()).thenReturn("jti");
+        when(tokenRevocationService.isRevoked("jti")).thenReturn(true);
+
+        //WHEN
+        List<String> actual = loginService.validateToken(token);
+
+        //THEN
+        assertTrue(actual.isEmpty());
+        verifyNoInteractions(userDetailServiceImp);
+    }
+
+    @Test
+    public void logout_tokens_revokesAccessTokenAndRefreshFamily() {
+        //GIVEN
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        when(jwtUtil.parseToken(token)).thenReturn(claims);
+        when(claims.getId()).thenReturn("jti");
+        when(claims.getExpiration()).thenReturn(expiration);
+
+        //WHEN
+        loginService.logout("Bearer " + token, "refresh");
+
+        //THEN
+        verify(tokenRevocationService).revoke("jti", expiration.toInstant());
+        verify(refreshTokenService).revoke("refresh");
     }
 }
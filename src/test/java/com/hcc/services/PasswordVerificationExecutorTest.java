@@ -0,0 +1,78 @@
+package com.hcc.services;
+
+import com.hcc.exceptions.LoginOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordVerificationExecutorTest {
+    private PasswordVerificationExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setup() {
+        meterRegistry = new SimpleMeterRegistry();
+        executor = new PasswordVerificationExecutor();
+        ReflectionTestUtils.setField(executor, "meterRegistry", meterRegistry);
+        //a single thread and a single queue slot
+        ReflectionTestUtils.setField(executor, "coreShare", 0.0);
+        ReflectionTestUtils.setField(executor, "queueCapacity", 1);
+        ReflectionTestUtils.setField(executor, "timeoutMillis", 5_000L);
+        executor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void verify_completes_returnsResultAndRecordsLatency() {
+        //WHEN
+        String result = executor.verify(() -> "verified");
+        //THEN
+        assertEquals("verified", result);
+        assertEquals(1, meterRegistry.get("login.verification").timer().count());
+    }
+
+    @Test
+    public void verify_verificationThrows_rethrowsSameException() {
+        assertThrows(BadCredentialsException.class, () -> executor.verify(() -> {
+            throw new BadCredentialsException("Bad credentials");
+        }));
+    }
+
+    @Test
+    public void verify_queueFull_throwsLoginOverloadedException() throws Exception {
+        //GIVEN
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> executor.verify(() -> {
+            running.countDown();
+            release.await();
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> executor.verify(() -> "second"));
+        while (meterRegistry.get("login.verification.queue.size").gauge().value() < 1) {
+            Thread.sleep(10);
+        }
+
+        //WHEN
+        //THEN
+        assertThrows(LoginOverloadedException.class, () -> executor.verify(() -> "third"));
+        assertEquals(1, meterRegistry.get("login.verification.rejected").counter().count());
+        release.countDown();
+        assertEquals("first", busy.get(5, TimeUnit.SECONDS));
+        assertEquals("second", queued.get(5, TimeUnit.SECONDS));
+    }
+}
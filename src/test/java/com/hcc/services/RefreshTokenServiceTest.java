@@ -0,0 +1,123 @@
+package com.hcc.services;
+
+import com.hcc.dtos.AuthCredentialResponse;
+import com.hcc.entities.RefreshToken;
+import com.hcc.entities.User;
+import com.hcc.exceptions.UnauthorizedAccessException;
+import com.hcc.repositories.RefreshTokenRepository;
+import com.hcc.repositories.UserRepository;
+import com.hcc.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class RefreshTokenServiceTest {
+    private static final String FAMILY = "family";
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @InjectMocks
+    private RefreshTokenService service;
+
+    private User learner;
+    private RefreshToken stored;
+
+    @BeforeEach
+    void setup() {
+        initMocks(this);
+        learner = new User();
+        learner.setId(123L);
+
+        stored = new RefreshToken(RefreshTokenService.digest("old"), FAMILY, learner,
+                Instant.now().plus(Duration.ofDays(1)));
+        stored.setId(1L);
+        when(refreshTokenRepository.findByTokenHash(RefreshTokenService.digest("old"))).thenReturn(Optional.of(stored));
+    }
+
+    @Test
+    public void rotate_validToken_returnsNewTokensOfSameFamily() {
+        //GIVEN
+        when(refreshTokenRepository.markReplaced(eq(1L), any())).thenReturn(1);
+        when(jwtUtil.generateToken(learner)).thenReturn("access");
+        ArgumentCaptor<RefreshToken> saved = ArgumentCaptor.forClass(RefreshToken.class);
+
+        //WHEN
+        AuthCredentialResponse response = service.rotate("old");
+
+        //THEN
+        verify(refreshTokenRepository).save(saved.capture());
+        assertEquals("access", response.getToken());
+        assertNotEquals("old", response.getRefreshToken());
+        assertEquals(RefreshTokenService.digest(response.getRefreshToken()), saved.getValue().getTokenHash());
+        assertEquals(FAMILY, saved.getValue().getFamilyId());
+        assertEquals(learner, saved.getValue().getUser());
+    }
+
+    @Test
+    public void rotate_replacedTokenAfterGracePeriod_revokesFamily() {
+        //GIVEN
+        stored.setReplacedAt(Instant.now().minusSeconds(60));
+
+        //WHEN
+        //THEN
+        assertThrows(UnauthorizedAccessException.class, () -> service.rotate("old"));
+        verify(refreshTokenRepository).deleteFamily(FAMILY);
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    public void rotate_replacedTokenWithinGracePeriod_keepsFamily() {
+        //GIVEN
+        stored.setReplacedAt(Instant.now().minusSeconds(2));
+
+        //WHEN
+        //THEN
+        assertThrows(UnauthorizedAccessException.class, () -> service.rotate("old"));
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+        verify(refreshTokenRepository, never()).markReplaced(any(), any());
+        verify(refreshTokenRepository, never()).save(any());
+    }
+
+    @Test
+    public void rotate_concurrentRotation_keepsFamily() {
+        //GIVEN
+        //read before the other request marked it replaced
+        when(refreshTokenRepository.markReplaced(eq(1L), any())).thenReturn(0);
+
+        //WHEN
+        //THEN
+        assertThrows(UnauthorizedAccessException.class, () -> service.rotate("old"));
+        verify(refreshTokenRepository, never()).deleteFamily(any());
+        verify(refreshTokenRepository, never()).save(any());
+        verify(jwtUtil, never()).generateToken(any());
+    }
+
+    @Test
+    public void rotate_unknownOrExpiredToken_throwsUnauthorized() {
+        //GIVEN
+        stored.setExpiresAt(Instant.now().minusSeconds(1));
+
+        //WHEN
+        //THEN
+        assertThrows(UnauthorizedAccessException.class, () -> service.rotate("unknown"));
+        assertThrows(UnauthorizedAccessException.class, () -> service.rotate("old"));
+        verify(refreshTokenRepository, never()).save(any());
+    }
+}
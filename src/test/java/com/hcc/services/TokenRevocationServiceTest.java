@@ -0,0 +1,104 @@
+package com.hcc.services;
+
+import com.hcc.repositories.RevokedTokenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class TokenRevocationServiceTest {
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenRevocationService service;
+
+    @BeforeEach
+    void setup() {
+        initMocks(this);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "expectedTokens", 2);
+        when(revokedTokenRepository.findUnexpired(isNull()))
+                .thenReturn(Map.of("revoked-elsewhere", Instant.now().plusSeconds(60)));
+        service.init();
+    }
+
+    @Test
+    public void isRevoked_loadedAtStartup_true() {
+        assertTrue(service.isRevoked("revoked-elsewhere"));
+        assertFalse(service.isRevoked("valid"));
+        assertFalse(service.isRevoked(null));
+    }
+
+    @Test
+    public void revoke_unexpiredToken_recordedAndRevokedAtOnce() {
+        //GIVEN
+        Instant expiresAt = Instant.now().plusSeconds(60);
+
+        //WHEN
+        service.revoke("jti", expiresAt);
+
+        //THEN
+        verify(revokedTokenRepository).insert("jti", expiresAt);
+        assertTrue(service.isRevoked("jti"));
+    }
+
+    @Test
+    public void revoke_moreTokensThanExpected_allStillRevoked() {
+        //WHEN
+        for (int i = 0; i < 10; i++) {
+            service.revoke("jti-" + i, Instant.now().plusSeconds(60));
+        }
+
+        //THEN
+        for (int i = 0; i < 10; i++) {
+            assertTrue(service.isRevoked("jti-" + i));
+        }
+        assertTrue(service.isRevoked("revoked-elsewhere"));
+    }
+
+    @Test
+    public void sync_revokedElsewhere_picksUpNewTokens() {
+        //GIVEN
+        when(revokedTokenRepository.findUnexpired(any(Instant.class)))
+                .thenReturn(Map.of("new", Instant.now().plusSeconds(60)));
+
+        //WHEN
+        service.sync();
+
+        //THEN
+        assertTrue(service.isRevoked("new"));
+    }
+
+    @Test
+    public void prune_expiredToken_forgotten() {
+        //GIVEN
+        service.revoke("expiring", Instant.now().plusMillis(50));
+        when(revokedTokenRepository.deleteExpired()).thenReturn(1);
+
+        //WHEN
+        await(Instant.now().plusMillis(100));
+        service.prune();
+
+        //THEN
+        assertFalse(service.isRevoked("expiring"));
+        assertTrue(service.isRevoked("revoked-elsewhere"));
+    }
+
+    private static void await(Instant instant) {
+        while (Instant.now().isBefore(instant)) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.hcc.services;
+
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import com.hcc.repositories.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.mockito.MockitoAnnotations.initMocks;
+
+public class UserDetailServiceImplTest {
+    @Mock
+    private UserRepository userRepo;
+
+    @InjectMocks
+    private UserDetailServiceImpl service;
+
+    private User learner;
+
+    @BeforeEach
+    void setup() {
+        initMocks(this);
+        ReflectionTestUtils.setField(service, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(service, "maximumSize", 100L);
+        ReflectionTestUtils.setField(service, "ttlSeconds", 60L);
+        service.init();
+
+        learner = new User();
+        learner.setId(123L);
+        learner.setCohortStartDate(LocalDate.of(2024, 1, 8));
+        learner.setUsername("learner");
+        learner.setPassword("hash");
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+    }
+
+    @Test
+    public void loadUserByUsername_repeatedLookup_hitsRepositoryOnce() {
+        //GIVEN
+        when(userRepo.findByUsername("learner")).thenReturn(Optional.of(learner));
+
+        //WHEN
+        UserDetails first = service.loadUserByUsername("learner");
+        UserDetails second = service.loadUserByUsername("learner");
+
+        //THEN
+        verify(userRepo, times(1)).findByUsername("learner");
+        assertEquals(learner, first);
+        assertEquals(learner, second);
+        assertNotSame(first, second);
+        assertEquals(learner.getCohortStartDate(), ((User) second).getCohortStartDate());
+        assertEquals(AuthorityEnum.ROLE_LEARNER.name(), second.getAuthorities().iterator().next().getAuthority());
+        assertEquals(1, service.getCacheStats().hitCount());
+        assertEquals(1, service.getCacheStats().missCount());
+    }
+
+    @Test
+    public void loadUserByUsername_afterEvict_reloadsUser() {
+        //GIVEN
+        when(userRepo.findByUsername("learner")).thenReturn(Optional.of(learner));
+        service.loadUserByUsername("learner");
+
+        //WHEN
+        service.evict("learner");
+        service.loadUserByUsername("learner");
+
+        //THEN
+        verify(userRepo, times(2)).findByUsername("learner");
+    }
+
+    @Test
+    public void loadUserByUsername_unknownUser_throwsUsernameNotFoundException() {
+        //GIVEN
+        when(userRepo.findByUsername("unknown")).thenReturn(Optional.empty());
+
+        //WHEN
+        //THEN
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("unknown"));
+    }
+
+    @Test
+    public void loadUserByUsername_repeatedUnknownUser_hitsRepositoryOnceUntilEvicted() {
+        //GIVEN
+        when(userRepo.findByUsername("unknown")).thenReturn(Optional.empty());
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("unknown"));
+
+        //WHEN
+        assertTrue(service.isUnknownUsername("unknown"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("unknown"));
+        service.evict("unknown");
+
+        //THEN
+        assertFalse(service.isUnknownUsername("unknown"));
+        verify(userRepo, times(1)).findByUsername("unknown");
+    }
+
+    @Test
+    public void updatePassword_knownUser_savesNewHash() {
+        //GIVEN
+        when(userRepo.findByUsername("learner")).thenReturn(Optional.of(learner));
+
+        //WHEN
+        UserDetails updated = service.updatePassword(learner, "newHash");
+
+        //THEN
+        verify(userRepo).save(learner);
+        assertEquals("newHash", learner.getPassword());
+        assertEquals("newHash", updated.getPassword());
+    }
+}
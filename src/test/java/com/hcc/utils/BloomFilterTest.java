@@ -0,0 +1,48 @@
+package com.hcc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BloomFilterTest {
+    private static final int KEYS = 10_000;
+
+    @Test
+    public void mightContain_putKeys_neverMissed() {
+        //GIVEN
+        BloomFilter filter = new BloomFilter(KEYS, 0.01);
+        String[] keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = UUID.randomUUID().toString();
+            filter.put(keys[i]);
+        }
+
+        //WHEN
+        //THEN
+        for (String key : keys) {
+            assertTrue(filter.mightContain(key), key);
+        }
+    }
+
+    @Test
+    public void mightContain_otherKeys_falsePositivesNearRate() {
+        //GIVEN
+        BloomFilter filter = new BloomFilter(KEYS, 0.01);
+        for (int i = 0; i < KEYS; i++) {
+            filter.put(UUID.randomUUID().toString());
+        }
+
+        //WHEN
+        int falsePositives = 0;
+        for (int i = 0; i < KEYS; i++) {
+            if (filter.mightContain(UUID.randomUUID().toString())) {
+                falsePositives++;
+            }
+        }
+
+        //THEN
+        assertTrue(falsePositives < KEYS * 0.02, falsePositives + " false positives");
+    }
+}
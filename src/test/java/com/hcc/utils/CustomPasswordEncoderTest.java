@@ -0,0 +1,40 @@
+package com.hcc.utils;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CustomPasswordEncoderTest {
+
+    @Test
+    public void strengthFor_slowerTarget_addsOneStrengthPerDoubling() {
+        assertEquals(10, CustomPasswordEncoder.strengthFor(40, 40, 10, 16));
+        assertEquals(12, CustomPasswordEncoder.strengthFor(10, 40, 10, 16));
+        assertEquals(13, CustomPasswordEncoder.strengthFor(6, 40, 10, 16));
+    }
+
+    @Test
+    public void strengthFor_outOfRange_isClamped() {
+        assertEquals(10, CustomPasswordEncoder.strengthFor(200, 40, 10, 16));
+        assertEquals(16, CustomPasswordEncoder.strengthFor(0.01, 40, 10, 16));
+    }
+
+    @Test
+    public void getPasswordEncoder_olderWeakerHash_matchesAndNeedsUpgrade() {
+        //GIVEN
+        CustomPasswordEncoder customPasswordEncoder = new CustomPasswordEncoder();
+        ReflectionTestUtils.setField(customPasswordEncoder, "strength", 5);
+        customPasswordEncoder.init();
+        PasswordEncoder encoder = customPasswordEncoder.getPasswordEncoder();
+        String oldHash = new BCryptPasswordEncoder(4).encode("password");
+
+        //WHEN
+        //THEN
+        assertTrue(encoder.matches("password", oldHash));
+        assertTrue(encoder.upgradeEncoding(oldHash));
+        assertFalse(encoder.upgradeEncoding(encoder.encode("password")));
+    }
+}
@@ -0,0 +1,99 @@
+package com.hcc.utils;
+
+import com.hcc.entities.Authority;
+import com.hcc.entities.User;
+import com.hcc.enums.AuthorityEnum;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtUtilTest {
+    private JwtUtil jwtUtil;
+    private User learner;
+
+    @BeforeEach
+    void setup() {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "dGVzdFNlY3JldEZvckp3dFV0aWxUZXN0c09ubHk=");
+        ReflectionTestUtils.setField(jwtUtil, "verifiedCacheMaximumSize", 100L);
+        jwtUtil.init();
+
+        learner = new User();
+        learner.setId(123L);
+        learner.setUsername("learner");
+        learner.setAuthorities(List.of(new Authority(AuthorityEnum.ROLE_LEARNER.name())));
+    }
+
+    @Test
+    public void parseToken_sameToken_returnsCachedClaims() {
+        //GIVEN
+        String token = jwtUtil.generateToken(learner);
+
+        //WHEN
+        Claims first = jwtUtil.parseToken(token);
+        Claims second = jwtUtil.parseToken(token);
+
+        //THEN
+        assertEquals("learner", first.getSubject());
+        assertSame(first, second);
+    }
+
+    @Test
+    public void generateToken_everyToken_hasOwnId() {
+        //GIVEN
+        String first = jwtUtil.generateToken(learner);
+        String second = jwtUtil.generateToken(learner);
+
+        //WHEN
+        //THEN
+        assertNotNull(jwtUtil.parseToken(first).getId());
+        assertNotEquals(jwtUtil.parseToken(first).getId(), jwtUtil.parseToken(second).getId());
+    }
+
+    @Test
+    public void parseToken_tamperedToken_throwsJwtException() {
+        //GIVEN
+        String token = jwtUtil.generateToken(learner);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        //WHEN
+        //THEN
+        assertThrows(JwtException.class, () -> jwtUtil.parseToken(tampered));
+    }
+
+    @Test
+    public void validateToken_claimsOfOtherUser_returnsFalse() {
+        //GIVEN
+        User reviewer = new User();
+        reviewer.setUsername("reviewer");
+        Claims claims = jwtUtil.parseToken(jwtUtil.generateToken(learner));
+
+        //WHEN
+        //THEN
+        assertTrue(jwtUtil.validateToken(claims, learner));
+        assertFalse(jwtUtil.validateToken(claims, reviewer));
+        assertFalse(jwtUtil.validateToken(claims, null));
+    }
+
+    @Test
+    public void getUserFromClaims_identityClaims_returnsUser() {
+        //GIVEN
+        Claims claims = jwtUtil.parseToken(jwtUtil.generateToken(learner));
+
+        //WHEN
+        User actual = jwtUtil.getUserFromClaims(claims);
+
+        //THEN
+        assertTrue(jwtUtil.hasIdentityClaims(claims));
+        assertEquals(123L, actual.getId());
+        assertEquals("learner", actual.getUsername());
+        assertEquals(AuthorityEnum.ROLE_LEARNER.name(), actual.getAuthorities().iterator().next().getAuthority());
+        assertEquals(JwtUtil.getAuthoritiesVersion(learner.getAuthorities()), jwtUtil.getAuthoritiesVersion(claims));
+    }
+}
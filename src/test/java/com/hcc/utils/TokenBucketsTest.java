@@ -0,0 +1,91 @@
+package com.hcc.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TokenBucketsTest {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(-5 * SECOND);
+
+    @Test
+    public void tryAcquire_fullBucket_allowsCapacityThenWaitsForRefill() {
+        //GIVEN
+        TokenBuckets buckets = new TokenBuckets(1000, 3, SECOND, clock::get);
+
+        //WHEN
+        //THEN
+        assertEquals(0, buckets.tryAcquire("user"));
+        assertEquals(0, buckets.tryAcquire("user"));
+        assertEquals(0, buckets.tryAcquire("user"));
+        assertEquals(SECOND, buckets.tryAcquire("user"));
+
+        clock.addAndGet(SECOND / 4);
+        assertEquals(3 * SECOND / 4, buckets.tryAcquire("user"));
+        clock.addAndGet(3 * SECOND / 4);
+        assertEquals(0, buckets.tryAcquire("user"));
+    }
+
+    @Test
+    public void tryAcquire_idleBucket_refillsUpToCapacityOnly() {
+        //GIVEN
+        TokenBuckets buckets = new TokenBuckets(1000, 2, SECOND, clock::get);
+        buckets.tryAcquire("user");
+        buckets.tryAcquire("user");
+
+        //WHEN
+        clock.addAndGet(60 * SECOND);
+
+        //THEN
+        assertEquals(0, buckets.tryAcquire("user"));
+        assertEquals(0, buckets.tryAcquire("user"));
+        assertEquals(SECOND, buckets.tryAcquire("user"));
+    }
+
+    @Test
+    public void tryAcquire_otherKey_hasItsOwnBucket() {
+        //GIVEN
+        TokenBuckets buckets = new TokenBuckets(1000, 1, SECOND, clock::get);
+        buckets.tryAcquire("user");
+
+        //WHEN
+        //THEN
+        assertEquals(SECOND, buckets.tryAcquire("user"));
+        assertEquals(0, buckets.tryAcquire("other-user"));
+    }
+
+    @Test
+    public void tryAcquire_manyKeys_neverShareABucket() {
+        //GIVEN
+        TokenBuckets buckets = new TokenBuckets(100000, 1, SECOND, clock::get);
+
+        //WHEN
+        //THEN
+        for (int i = 0; i < 50000; i++) {
+            assertEquals(0, buckets.tryAcquire("user-" + i));
+        }
+        assertEquals(SECOND, buckets.tryAcquire("user-0"));
+    }
+
+    @Test
+    public void size_bucketIdleUntilFull_expires() {
+        //GIVEN
+        TokenBuckets buckets = new TokenBuckets(1000, 2, SECOND, clock::get);
+        buckets.tryAcquire("user");
+        buckets.tryAcquire("other-user");
+        clock.addAndGet(SECOND);
+        buckets.tryAcquire("other-user");
+
+        //WHEN
+        clock.addAndGet(SECOND + 1);
+
+        //THEN
+        assertEquals(1, buckets.size());
+        assertEquals(0, buckets.tryAcquire("user"));
+        assertEquals(0, buckets.tryAcquire("user"));
+    }
+}